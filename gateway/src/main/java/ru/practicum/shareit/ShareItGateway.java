@@ -2,11 +2,31 @@ package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
 
+/**
+ * Пул соединений java.net.http.HttpClient настраивается системными свойствами, которые JDK читает один раз
+ * при первом создании HttpClient, поэтому они задаются до создания бинов:
+ * jdk.httpclient.keepalive.timeout — сколько секунд держать простаивающее keep-alive соединение,
+ * jdk.httpclient.connectionPoolSize — сколько простаивающих соединений держать, берется из
+ * shareit-server.pool.max-total, как только окружение Spring готово.
+ * Значения, переданные через -D, имеют приоритет.
+ */
 @SpringBootApplication
 public class ShareItGateway {
     public static void main(String[] args) {
-        SpringApplication.run(ShareItGateway.class, args);
+        setDefault("jdk.httpclient.keepalive.timeout", "30");
+        SpringApplication application = new SpringApplication(ShareItGateway.class);
+        application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event ->
+                setDefault("jdk.httpclient.connectionPoolSize",
+                        event.getEnvironment().getProperty("shareit-server.pool.max-total", "200")));
+        application.run(args);
     }
 
-}
\ No newline at end of file
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
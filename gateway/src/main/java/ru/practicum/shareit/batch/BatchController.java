@@ -0,0 +1,42 @@
+package ru.practicum.shareit.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.batch.dto.BatchRequestDto;
+import ru.practicum.shareit.batch.dto.BatchResponseDto;
+import ru.practicum.shareit.ratelimit.RateLimitInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping(path = "/batch")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchController {
+    private final BatchDispatcher batchDispatcher;
+
+    @PostMapping
+    public CompletableFuture<List<BatchResponseDto>> execute(
+            @RequestHeader(value = "X-Sharer-User-Id", required = false) String userId,
+            @RequestBody List<BatchRequestDto> requests, HttpServletRequest request) {
+        log.info("Пришел /POST запрос на выполнение пакета из {} запросов от пользователя с id {}", requests.size(),
+                userId);
+        return batchDispatcher.execute(gatewayUrl(request), userId, RateLimitInterceptor.clientAddress(request),
+                requests);
+    }
+
+    /**
+     * Подзапросы идут на тот адрес и порт, на которые пришел пакет: шлюз может слушать не loopback,
+     * а конкретный интерфейс (server.address).
+     */
+    private static String gatewayUrl(HttpServletRequest request) {
+        String host = request.getLocalAddr();
+        if (host.contains(":")) {
+            host = "[" + host + "]";
+        }
+        return request.getScheme() + "://" + host + ":" + request.getLocalPort();
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.batch.dto.BatchRequestDto;
+import ru.practicum.shareit.batch.dto.BatchResponseDto;
+import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.exceptions.exceptionHandler.ErrorResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Выполняет подзапросы пакета параллельно через собственные контроллеры шлюза: каждый подзапрос отправляется
+ * на локальный порт шлюза, поэтому к нему применяются те же проверки, лимиты, кэш и клиенты, что и к обычному
+ * запросу. Адрес исходного клиента передается в X-Forwarded-For, поэтому подзапросы без X-Sharer-User-Id
+ * лимитируются по нему, а не по адресу самого шлюза. Ответы возвращаются в порядке подзапросов; подзапрос,
+ * не уложившийся в общий timeout пакета, получает статус 504, остальные ответы при этом не теряются.
+ */
+@Service
+@Slf4j
+public class BatchDispatcher {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final List<String> METHODS = List.of("GET", "POST", "PUT", "PATCH", "DELETE");
+    private static final List<String> RESOURCES = List.of("bookings", "items", "requests", "users");
+    private static final Set<String> FORWARDED_HEADERS = Set.of("location", "retry-after");
+    /**
+     * Путь подзапроса без параметров: ресурс и сегменты только из букв, цифр, "_" и "-". Точки, "%" и ";"
+     * не допускаются, поэтому ни "..", ни закодированное "%2e%2e", ни "..;" не выведут запрос за пределы ресурсов.
+     */
+    private static final Pattern PATH = Pattern.compile("/(" + String.join("|", RESOURCES) + ")(/[A-Za-z0-9_-]+)*");
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final Duration timeout;
+
+    public BatchDispatcher(ObjectMapper objectMapper,
+                           @Value("${shareit-gateway.batch.max-size:20}") int maxSize,
+                           @Value("${shareit-gateway.batch.timeout:10s}") Duration timeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+    }
+
+    public CompletableFuture<List<BatchResponseDto>> execute(String gatewayUrl, String userId, String clientAddress,
+                                                             List<BatchRequestDto> requests) {
+        validate(requests);
+        List<CompletableFuture<BatchResponseDto>> responses = requests.stream()
+                .map(request -> send(gatewayUrl, userId, clientAddress, request))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> responses.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
+
+    private void validate(List<BatchRequestDto> requests) {
+        if (requests.isEmpty() || requests.size() > maxSize) {
+            throw new BadRequestException(String.format("В пакете должно быть от 1 до %d запросов, передано %d",
+                    maxSize, requests.size()));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            BatchRequestDto request = requests.get(i);
+            if (request == null || request.getMethod() == null || !METHODS.contains(request.getMethod())) {
+                throw new BadRequestException(String.format("Подзапрос %d: метод должен быть одним из %s", i,
+                        METHODS));
+            }
+            String path = request.getPath();
+            if (path == null || !PATH.matcher(path.split("\\?", 2)[0]).matches()) {
+                throw new BadRequestException(String.format("Подзапрос %d: путь должен начинаться с одного из %s",
+                        i, RESOURCES));
+            }
+            try {
+                URI.create(path);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(String.format("Подзапрос %d: некорректный путь %s", i, path));
+            }
+        }
+    }
+
+    private CompletableFuture<BatchResponseDto> send(String gatewayUrl, String userId, String clientAddress,
+                                                     BatchRequestDto request) {
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder(URI.create(gatewayUrl + request.getPath()))
+                .timeout(timeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .method(request.getMethod(), toBodyPublisher(request.getBody()));
+        if (hasBody(request.getBody())) {
+            httpRequest.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        }
+        if (userId != null) {
+            httpRequest.header(USER_ID_HEADER, userId);
+        }
+        httpRequest.header(FORWARDED_FOR_HEADER, clientAddress);
+        return httpClient.sendAsync(httpRequest.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(this::toResponse)
+                .exceptionally(e -> toError(request, e))
+                .completeOnTimeout(timedOut(request), timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private BatchResponseDto toResponse(HttpResponse<byte[]> response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase();
+            if (lowerCaseName.startsWith("x-") || FORWARDED_HEADERS.contains(lowerCaseName)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return BatchResponseDto.builder()
+                .status(response.statusCode())
+                .headers(headers)
+                .body(toJson(response.body()))
+                .build();
+    }
+
+    private BatchResponseDto toError(BatchRequestDto request, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof HttpTimeoutException) {
+            return timedOut(request);
+        }
+        log.warn("Не удалось выполнить подзапрос {} {}", request.getMethod(), request.getPath(), cause);
+        return error(HttpStatus.BAD_GATEWAY, String.format("Не удалось выполнить подзапрос %s %s",
+                request.getMethod(), request.getPath()));
+    }
+
+    private BatchResponseDto timedOut(BatchRequestDto request) {
+        return error(HttpStatus.GATEWAY_TIMEOUT, String.format("Подзапрос %s %s не выполнен за %d мс",
+                request.getMethod(), request.getPath(), timeout.toMillis()));
+    }
+
+    private BatchResponseDto error(HttpStatus status, String message) {
+        return BatchResponseDto.builder()
+                .status(status.value())
+                .body(objectMapper.valueToTree(new ErrorResponse(message)))
+                .build();
+    }
+
+    private JsonNode toJson(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return TextNode.valueOf(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private HttpRequest.BodyPublisher toBodyPublisher(JsonNode body) {
+        if (!hasBody(body)) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать тело подзапроса", e);
+        }
+    }
+
+    private static boolean hasBody(JsonNode body) {
+        return body != null && !body.isNull();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchRequestDto {
+    private String method;
+    private String path;
+    private JsonNode body;
+}
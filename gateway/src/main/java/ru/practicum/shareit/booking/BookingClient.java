@@ -1,42 +1,56 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.SingleFlight;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         ServerConnectionPool connectionPool,
+                         SingleFlight singleFlight,
+                         ClientResilience resilience,
+                         ObjectMapper objectMapper,
+                         ResponseCache responseCache,
+                         @Value("${shareit-server.cache.ttl.bookings:1s}") Duration cacheTtl) {
+        super(connectionPool, singleFlight, resilience, serverUrl + API_PREFIX, objectMapper, responseCache,
+                cacheTtl);
+        this.objectMapper = objectMapper;
     }
 
-    public ResponseEntity<Object> getAllByBooker(long userId, BookingState state, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByBooker(long userId, BookingState state, Integer from,
+                                                                    Integer size, Boolean withTotal) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "withTotal", withTotal
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&withTotal={withTotal}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByOwner(long userId, BookingState state, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByOwner(long userId, BookingState state, Integer from,
+                                                                   Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -45,16 +59,60 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> create(long userId, BookingRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByBooker(long userId, BookingState state, String after,
+                                                                    Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getById(long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByOwner(long userId, BookingState state, String after,
+                                                                   Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
+    /**
+     * Новое бронирование меняет lastBooking и nextBooking вещи, поэтому ее ответы удаляются из кэша.
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> create(long userId, BookingRequestDto requestDto) {
+        return post("", userId, requestDto)
+                .whenComplete((response, e) -> evictServerCached("/items/" + requestDto.getItemId()));
     }
 
-    public ResponseEntity<Object> approve(Long bookingId, Long userId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<byte[]>> getById(long userId, Long bookingId) {
+        return getCached("/" + bookingId, userId);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> approve(Long bookingId, Long userId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null)
+                .whenComplete((response, e) -> {
+                    evictCached("/" + bookingId);
+                    evictServerCached("/items" + itemPathOf(response));
+                });
+    }
+
+    /**
+     * Путь вещи из ответа на бронирование, например "/1". Если ответа нет или в нем нет вещи,
+     * возвращается пустая строка, и из кэша удаляются все вещи.
+     */
+    private String itemPathOf(ResponseEntity<byte[]> response) {
+        if (response == null || response.getBody() == null || !response.getStatusCode().is2xxSuccessful()) {
+            return "";
+        }
+        try {
+            JsonNode itemId = objectMapper.readTree(response.getBody()).path("item").path("id");
+            return itemId.isNumber() ? "/" + itemId.asLong() : "";
+        } catch (IOException e) {
+            return "";
+        }
     }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import ru.practicum.shareit.booking.dto.BookingState;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -24,53 +25,74 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllByBooker(@RequestHeader(USERID_HEADER) long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByBooker(@RequestHeader(USERID_HEADER) long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "withTotal", defaultValue = "false") Boolean withTotal) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Пришел /GET запрос на получение списка всех бронирований для пользователя с id {}, и с параметром {}",
                 userId, state);
-        ResponseEntity<Object> bookings = bookingClient.getAllByBooker(userId, state, from, size);
-        return bookings;
+        return bookingClient.getAllByBooker(userId, state, from, size, withTotal);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllByOwner(@RequestHeader(USERID_HEADER) long userId,
-                                                @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByOwner(@RequestHeader(USERID_HEADER) long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Пришел /GET запрос на получение списка всех бронирований для владельца с id {}, и с параметром {}",
                 userId, state);
-        ResponseEntity<Object> bookings = bookingClient.getAllByOwner(userId, state, from, size);
-        return bookings;
+        return bookingClient.getAllByOwner(userId, state, from, size);
     }
 
-        @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approve(@PathVariable Long bookingId, @RequestHeader(USERID_HEADER) Long userId,
-                                      @RequestParam Boolean approved) {
+    @GetMapping(params = "after")
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByBookerAfter(@RequestHeader(USERID_HEADER) long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @RequestParam(name = "after") String after,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Пришел /GET запрос на получение страницы бронирований для пользователя с id {}, с параметром {} " +
+                "после курсора {}", userId, state, after);
+        return bookingClient.getAllByBooker(userId, state, after, size);
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByOwnerAfter(@RequestHeader(USERID_HEADER) long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @RequestParam(name = "after") String after,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Пришел /GET запрос на получение страницы бронирований для владельца с id {}, с параметром {} " +
+                "после курсора {}", userId, state, after);
+        return bookingClient.getAllByOwner(userId, state, after, size);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public CompletableFuture<ResponseEntity<byte[]>> approve(@PathVariable Long bookingId,
+                                                             @RequestHeader(USERID_HEADER) Long userId,
+                                                             @RequestParam Boolean approved) {
         log.info("Пришел /POST запрос на принятие или отклонение аренды от пользователя с id {} к предмету с id {}",
                 userId, bookingId);
-        ResponseEntity<Object> booking = bookingClient.approve(bookingId, userId, approved);
-        return booking;
+        return bookingClient.approve(bookingId, userId, approved);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@Valid @RequestBody BookingRequestDto bookingDto,
-                                           @RequestHeader(USERID_HEADER) Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(@Valid @RequestBody BookingRequestDto bookingDto,
+                                                            @RequestHeader(USERID_HEADER) Long userId) {
         log.info("Пришел POST запрос на добавление новой аренды {} от пользователя с id {}", bookingDto, userId);
-        ResponseEntity<Object> booking = bookingClient.create(userId, bookingDto);
-        return booking;
+        return bookingClient.create(userId, bookingDto);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getById(@RequestHeader(USERID_HEADER) long userId,
-                                             @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getById(@RequestHeader(USERID_HEADER) long userId,
+                                                             @PathVariable Long bookingId) {
         log.info("Пришел /GET запрос на получение данных об аренде с id {} от пользователя {}", bookingId, userId);
-        ResponseEntity<Object> booking = bookingClient.getById(userId, bookingId);
-        return booking;
+        return bookingClient.getById(userId, bookingId);
     }
 }
\ No newline at end of file
@@ -1,121 +1,309 @@
 package ru.practicum.shareit.client;
 
-import java.util.List;
-import java.util.Map;
-
-import org.springframework.http.HttpEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
+/**
+ * Неблокирующий клиент сервера ShareIt на java.net.http.HttpClient. Запрос отправляется через sendAsync
+ * общего ServerConnectionPool, поэтому поток Tomcat освобождается сразу, а ответ собирается в потоке HttpClient.
+ * Контроллеры возвращают CompletableFuture, и Spring MVC дописывает ответ асинхронно.
+ * Тело ответа сервера не разбирается: байты вместе со статусом и заголовками отдаются клиенту как есть.
+ * У каждого клиента свои bulkhead и circuit breaker (см. ClientResilience): медленный ресурс сервера
+ * занимает только места своего клиента, а при частых ошибках или медленных ответах запросы сразу получают 503.
+ * Одинаковые одновременные GET склеиваются через SingleFlight и уходят на сервер одним запросом.
+ * Клиент, созданный с ResponseCache и ttl, может отдавать GET из кэша через getCached;
+ * его изменяющие запросы сами удаляют затронутые записи через evictCached, а записи других клиентов,
+ * ответы которых тоже меняются, — через evictServerCached.
+ * Большие ответы можно передавать без буферизации через getStreaming.
+ */
+@Slf4j
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "content-length", "keep-alive", "transfer-encoding", "upgrade");
+
+    private final ServerConnectionPool connectionPool;
+    private final SingleFlight singleFlight;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final String name;
+    private final String serverRoot;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+    private final Duration cacheTtl;
+
+    public BaseClient(ServerConnectionPool connectionPool, SingleFlight singleFlight, ClientResilience resilience,
+                      String baseUrl, ObjectMapper objectMapper) {
+        this(connectionPool, singleFlight, resilience, baseUrl, objectMapper, null, null);
+    }
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    public BaseClient(ServerConnectionPool connectionPool, SingleFlight singleFlight, ClientResilience resilience,
+                      String baseUrl, ObjectMapper objectMapper, @Nullable ResponseCache responseCache,
+                      @Nullable Duration cacheTtl) {
+        this.connectionPool = connectionPool;
+        this.singleFlight = singleFlight;
+        String basePath = URI.create(baseUrl).getPath();
+        this.name = basePath.replaceFirst("^/", "");
+        this.serverRoot = basePath.substring(0, Math.max(0, basePath.lastIndexOf('/')));
+        this.bulkhead = resilience.bulkhead(name);
+        this.circuitBreaker = resilience.circuitBreaker(name);
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(baseUrl);
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.cacheTtl = cacheTtl;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected CompletableFuture<ResponseEntity<byte[]>> getCached(String path, Long userId) {
+        return getCached(path, userId, null);
+    }
+
+    protected CompletableFuture<ResponseEntity<byte[]>> getCached(String path, Long userId,
+                                                                  @Nullable Map<String, Object> parameters) {
+        URI uri = expand(path, parameters);
+        if (responseCache == null) {
+            return sendGet(uri, userId);
+        }
+        String key = ResponseCache.key(HttpMethod.GET.name(), uri, userId);
+        ResponseEntity<byte[]> cached = responseCache.get(key);
+        if (cached != null) {
+            log.debug("GET {} из кэша", uri);
+            return CompletableFuture.completedFuture(cached);
+        }
+        return singleFlight.execute(key, uri.getPath(), () -> {
+            long generation = responseCache.generation();
+            return send(HttpMethod.GET, uri, userId, null).thenApply(response -> {
+                responseCache.put(key, uri, response, cacheTtl, generation);
+                return response;
+            });
+        });
+    }
+
+    /**
+     * GET, тело ответа которого не собирается в память шлюза, а копируется клиенту по мере чтения с сервера.
+     * Такие запросы не склеиваются через SingleFlight и не кэшируются.
+     */
+    protected CompletableFuture<ResponseEntity<StreamingResponseBody>> getStreaming(String path) {
+        HttpRequest.Builder request = newRequest(HttpMethod.GET, expand(path, null), null, null);
+        return execute(() -> connectionPool.sendStreaming(request)).thenApply(BaseClient::prepareStreamingResponse);
+    }
+
+    /**
+     * Удаляет из кэша ответы на path (относительно адреса клиента) для всех пользователей и параметров.
+     */
+    protected void evictCached(String path) {
+        evict(expand(path, null).getPath(), false);
+    }
+
+    /**
+     * То же, что evictCached, но вместе со всеми вложенными путями.
+     */
+    protected void evictCachedUnder(String path) {
+        evict(expand(path, null).getPath(), true);
+    }
+
+    /**
+     * Удаляет из кэша ответы другого ресурса сервера вместе с вложенными путями. resourcePath задается
+     * от корня API, например "/items/1", и нужен, когда изменение через этот клиент меняет ответы другого клиента.
+     */
+    protected void evictServerCached(String resourcePath) {
+        evict(serverRoot + resourcePath, true);
+    }
+
+    private void evict(String serverPath, boolean nested) {
+        singleFlight.forget(flightPath -> flightPath.equals(serverPath)
+                || nested && flightPath.startsWith(serverPath + "/"));
+        if (responseCache == null) {
+            return;
+        }
+        if (nested) {
+            responseCache.evictUnder(serverPath);
+        } else {
+            responseCache.evict(serverPath);
+        }
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, Long userId,
+                                                                 @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> put(String path, long userId,
+                                                                @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, Long userId,
+                                                                  @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path, Long userId,
+                                                               @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+    private <T> CompletableFuture<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path,
+            Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        URI uri = expand(path, parameters);
+        if (method == HttpMethod.GET) {
+            return sendGet(uri, userId);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return send(method, uri, userId, body);
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> sendGet(URI uri, Long userId) {
+        return singleFlight.execute(ResponseCache.key(HttpMethod.GET.name(), uri, userId), uri.getPath(),
+                () -> send(HttpMethod.GET, uri, userId, null));
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null ? uriBuilderFactory.expand(path, parameters) : uriBuilderFactory.expand(path);
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> send(HttpMethod method, URI uri, Long userId,
+                                                           @Nullable Object body) {
+        HttpRequest.Builder request = newRequest(method, uri, userId, body);
+        return execute(() -> connectionPool.send(request)).thenApply(BaseClient::prepareGatewayResponse);
+    }
+
+    private HttpRequest.Builder newRequest(HttpMethod method, URI uri, Long userId, @Nullable Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .method(method.name(), toBodyPublisher(body));
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            request.header(USER_ID_HEADER, String.valueOf(userId));
         }
-        return headers;
+        log.debug("{} {}", method, uri);
+        return request;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private <T> CompletableFuture<HttpResponse<T>> execute(Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        return bulkhead.execute(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return CompletableFuture.failedFuture(new ServerUnavailableException(String.format(
+                        "Сервер временно недоступен для %s, повторите позже", name)));
+            }
+            long start = System.nanoTime();
+            return call.get().whenComplete((response, e) -> onResult(start, response, e));
+        });
+    }
+
+    /**
+     * Сообщает circuit breaker только об ошибках сервера: сбоях соединения, таймаутах (IOException) и статусах 5xx.
+     * Отказы самого шлюза, например таймаут ожидания соединения в пуле, сервер не характеризуют.
+     */
+    private void onResult(long start, HttpResponse<?> response, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause != null && !(cause instanceof IOException)) {
+            circuitBreaker.releasePermission();
+            return;
         }
+        circuitBreaker.onResult(System.nanoTime() - start, cause != null || response.statusCode() >= 500);
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private HttpRequest.BodyPublisher toBodyPublisher(@Nullable Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать тело запроса", e);
+        }
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    static ResponseEntity<byte[]> prepareGatewayResponse(HttpResponse<byte[]> response) {
+        ResponseEntity.BodyBuilder responseBuilder = toResponseBuilder(response);
+        if (response.body().length == 0) {
+            return responseBuilder.build();
         }
+        return responseBuilder.body(response.body());
+    }
 
-        return responseBuilder.build();
+    static ResponseEntity<StreamingResponseBody> prepareStreamingResponse(HttpResponse<InputStream> response) {
+        return toResponseBuilder(response).body(outputStream -> {
+            try (InputStream body = response.body()) {
+                body.transferTo(outputStream);
+            }
+        });
+    }
+
+    private static ResponseEntity.BodyBuilder toResponseBuilder(HttpResponse<?> response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.statusCode());
+        response.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                responseBuilder.header(name, values.toArray(String[]::new));
+            }
+        });
+        return responseBuilder;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ограничение одновременных запросов одного клиента. Сверх maxConcurrent запросы ждут в очереди не дольше maxWait,
+ * а если и очередь заполнена, сразу получают 503. Освободившееся место передается первому ожидающему.
+ */
+class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private int active;
+
+    Bulkhead(String name, ClientResilienceProperties.BulkheadProperties properties) {
+        this.name = name;
+        this.maxConcurrent = properties.getMaxConcurrent();
+        this.maxQueue = properties.getMaxQueue();
+        this.maxWaitMillis = properties.getMaxWait().toMillis();
+    }
+
+    <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        return acquire().thenCompose(ignored -> {
+            try {
+                return call.get().whenComplete((result, e) -> release());
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+        });
+    }
+
+    synchronized int active() {
+        return active;
+    }
+
+    synchronized int queued() {
+        return (int) waiters.stream().filter(waiter -> !waiter.isDone()).count();
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    int maxQueue() {
+        return maxQueue;
+    }
+
+    long rejected() {
+        return rejected.get();
+    }
+
+    private CompletableFuture<Void> acquire() {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.removeIf(CompletableFuture::isDone);
+            if (waiters.isEmpty() && active < maxConcurrent) {
+                active++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiters.size() >= maxQueue) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(new ServerUnavailableException(String.format(
+                        "Очередь запросов к %s переполнена", name)));
+            }
+            waiters.add(waiter);
+        }
+        CompletableFuture.delayedExecutor(maxWaitMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (waiter.completeExceptionally(new ServerUnavailableException(String.format(
+                    "Запрос к %s не дождался очереди за %d мс", name, maxWaitMillis)))) {
+                rejected.incrementAndGet();
+            }
+        });
+        return waiter;
+    }
+
+    private void release() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker по последним windowSize ответам сервера. Ошибкой считается сбой соединения, таймаут
+ * или статус 5xx, медленным — ответ дольше slowCallDuration; запрос, не дошедший до сервера, не учитывается.
+ * Когда набралось minimumCalls ответов и доля ошибок или медленных ответов достигла порога, breaker
+ * открывается и openDuration отказывает сразу. Затем он пропускает halfOpenCalls пробных запросов
+ * и по их результатам закрывается или снова открывается.
+ */
+@Slf4j
+class CircuitBreaker {
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final byte[] outcomes;
+    private int index;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private long notPermitted;
+
+    CircuitBreaker(String name, ClientResilienceProperties.CircuitBreakerProperties properties) {
+        this.name = name;
+        this.minimumCalls = properties.getMinimumCalls();
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+        this.outcomes = new byte[properties.getWindowSize()];
+    }
+
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                notPermitted++;
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= halfOpenCalls) {
+                notPermitted++;
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает разрешение запроса, который так и не был отправлен на сервер, например не дождался соединения
+     * в пуле: иначе в HALF_OPEN пробные места закончились бы без результатов и breaker не вышел бы из этого состояния.
+     */
+    synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    synchronized void onResult(long durationNanos, boolean failure) {
+        if (state == State.OPEN) {
+            return;
+        }
+        byte outcome = (byte) ((failure ? FAILURE : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        if (calls == outcomes.length) {
+            failures -= outcomes[index] & FAILURE;
+            slowCalls -= (outcomes[index] & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        outcomes[index] = outcome;
+        index = (index + 1) % outcomes.length;
+        failures += outcome & FAILURE;
+        slowCalls += (outcome & SLOW) >> 1;
+        if (state == State.HALF_OPEN) {
+            if (calls >= halfOpenCalls) {
+                transitionTo(thresholdExceeded() ? State.OPEN : State.CLOSED);
+            }
+        } else if (calls >= minimumCalls && thresholdExceeded()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return calls == 0 ? 0 : 100.0 * failures / calls;
+    }
+
+    synchronized double slowCallRate() {
+        return calls == 0 ? 0 : 100.0 * slowCalls / calls;
+    }
+
+    synchronized int bufferedCalls() {
+        return calls;
+    }
+
+    synchronized long notPermitted() {
+        return notPermitted;
+    }
+
+    private boolean thresholdExceeded() {
+        return failures * 100 >= failureRateThreshold * calls || slowCalls * 100 >= slowCallRateThreshold * calls;
+    }
+
+    private void transitionTo(State newState) {
+        log.warn("Circuit breaker клиента {} переходит из {} в {} (ошибок {}%, медленных {}%)", name, state, newState,
+                failureRate(), slowCallRate());
+        state = newState;
+        index = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenPermits = 0;
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+}
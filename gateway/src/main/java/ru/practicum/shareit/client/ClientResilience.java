@@ -0,0 +1,93 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.client.dto.ClientResilienceState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bulkhead и circuit breaker каждого клиента шлюза. Состояние видно в /actuator/clients и в метриках
+ * gateway.bulkhead.* и gateway.circuitbreaker.* с тегом client.
+ */
+@Component
+@EnableConfigurationProperties(ClientResilienceProperties.class)
+public class ClientResilience {
+    private final ClientResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public ClientResilience(ClientResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public List<ClientResilienceState> getStates() {
+        return circuitBreakers.keySet().stream()
+                .sorted()
+                .map(this::toState)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<ClientResilienceState> getState(String client) {
+        return circuitBreakers.containsKey(client) ? Optional.of(toState(client)) : Optional.empty();
+    }
+
+    Bulkhead bulkhead(String client) {
+        return bulkheads.computeIfAbsent(client, name -> {
+            Bulkhead bulkhead = new Bulkhead(name, properties.getBulkhead());
+            Gauge.builder("gateway.bulkhead.active", bulkhead, Bulkhead::active).tag("client", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.bulkhead.queued", bulkhead, Bulkhead::queued).tag("client", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.bulkhead.rejected", bulkhead, Bulkhead::rejected).tag("client", name)
+                    .register(meterRegistry);
+            return bulkhead;
+        });
+    }
+
+    CircuitBreaker circuitBreaker(String client) {
+        return circuitBreakers.computeIfAbsent(client, name -> {
+            CircuitBreaker circuitBreaker = new CircuitBreaker(name, properties.getCircuitBreaker());
+            Gauge.builder("gateway.circuitbreaker.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                    .description("0 - CLOSED, 1 - OPEN, 2 - HALF_OPEN").tag("client", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.circuitbreaker.failure.rate", circuitBreaker, CircuitBreaker::failureRate)
+                    .tag("client", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.circuitbreaker.slow.rate", circuitBreaker, CircuitBreaker::slowCallRate)
+                    .tag("client", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.circuitbreaker.not.permitted", circuitBreaker,
+                            CircuitBreaker::notPermitted).tag("client", name)
+                    .register(meterRegistry);
+            return circuitBreaker;
+        });
+    }
+
+    private ClientResilienceState toState(String client) {
+        CircuitBreaker circuitBreaker = circuitBreaker(client);
+        Bulkhead bulkhead = bulkhead(client);
+        return ClientResilienceState.builder()
+                .client(client)
+                .circuitBreakerState(circuitBreaker.state().name())
+                .failureRate(circuitBreaker.failureRate())
+                .slowCallRate(circuitBreaker.slowCallRate())
+                .bufferedCalls(circuitBreaker.bufferedCalls())
+                .notPermittedCalls(circuitBreaker.notPermitted())
+                .bulkheadActive(bulkhead.active())
+                .bulkheadQueued(bulkhead.queued())
+                .bulkheadMaxConcurrent(bulkhead.maxConcurrent())
+                .bulkheadMaxQueue(bulkhead.maxQueue())
+                .bulkheadRejected(bulkhead.rejected())
+                .build();
+    }
+}
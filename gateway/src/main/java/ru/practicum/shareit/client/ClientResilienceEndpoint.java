@@ -0,0 +1,30 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.client.dto.ClientResilienceState;
+
+import java.util.List;
+
+/**
+ * Состояние circuit breaker и bulkhead клиентов шлюза: /actuator/clients и /actuator/clients/{client}.
+ */
+@Component
+@Endpoint(id = "clients")
+@RequiredArgsConstructor
+public class ClientResilienceEndpoint {
+    private final ClientResilience clientResilience;
+
+    @ReadOperation
+    public List<ClientResilienceState> clients() {
+        return clientResilience.getStates();
+    }
+
+    @ReadOperation
+    public ClientResilienceState client(@Selector String client) {
+        return clientResilience.getState(client).orElse(null);
+    }
+}
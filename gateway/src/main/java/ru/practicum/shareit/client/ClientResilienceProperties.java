@@ -0,0 +1,39 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки bulkhead и circuit breaker. Они одинаковы для всех клиентов, но у каждого клиента свои экземпляры,
+ * поэтому перегрузка одного ресурса сервера не занимает места, отведенные остальным.
+ */
+@ConfigurationProperties("shareit-server.resilience")
+@Getter
+@Setter
+public class ClientResilienceProperties {
+    private BulkheadProperties bulkhead = new BulkheadProperties();
+    private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+
+    @Getter
+    @Setter
+    public static class BulkheadProperties {
+        private int maxConcurrent = 50;
+        private int maxQueue = 100;
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreakerProperties {
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private int failureRateThreshold = 50;
+        private int slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Общий для клиентов шлюза кэш успешных ответов на GET с коротким ttl. Ключ — метод, путь, параметры запроса
+ * и X-Sharer-User-Id, поэтому ответы, зависящие от пользователя, не смешиваются.
+ * Размер ограничен суммарным объемом тел ответов, при переполнении вытесняются давно не запрашивавшиеся записи.
+ * Ответ, загрузка которого началась до удаления записей, в кэш не кладется, чтобы не вернуть старое значение.
+ * Метрики cache.gets, cache.size, cache.evictions, cache.hit.ratio и cache.bytes с тегом cache=responses
+ * доступны через /actuator/metrics.
+ */
+@Component
+public class ResponseCache {
+    private static final String CACHE_NAME = "responses";
+
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long bytes;
+    private long generation;
+
+    public ResponseCache(@Value("${shareit-server.cache.max-size:16MB}") DataSize maxSize,
+                         MeterRegistry meterRegistry) {
+        this.maxBytes = maxSize.toBytes();
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ResponseCache::size).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.bytes", this, ResponseCache::bytes).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, ResponseCache::hitRatio).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public static String key(String method, URI uri, Long userId) {
+        return method + " " + uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery())
+                + " " + userId;
+    }
+
+    public synchronized ResponseEntity<byte[]> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expires - System.nanoTime() <= 0) {
+            if (entry != null) {
+                remove(key);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.response;
+    }
+
+    /**
+     * Номер поколения, который нужно взять до отправки запроса и передать в put.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, URI uri, ResponseEntity<byte[]> response, Duration ttl,
+                                 long loadGeneration) {
+        long size = response.getBody() == null ? 0 : response.getBody().length;
+        if (loadGeneration != generation || !response.getStatusCode().is2xxSuccessful() || size > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(uri.getPath(), response, size, System.nanoTime() + ttl.toNanos()));
+        bytes += size;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().size;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Удаляет ответы на путь path с любыми параметрами и для любого пользователя.
+     */
+    public void evict(String path) {
+        evictIf(entryPath -> entryPath.equals(path));
+    }
+
+    /**
+     * Удаляет ответы на путь path и на все вложенные в него пути.
+     */
+    public void evictUnder(String path) {
+        evictIf(entryPath -> entryPath.equals(path) || entryPath.startsWith(path + "/"));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long bytes() {
+        return bytes;
+    }
+
+    private synchronized void evictIf(Predicate<String> path) {
+        generation++;
+        entries.entrySet().removeIf(entry -> {
+            if (!path.test(entry.getValue().path)) {
+                return false;
+            }
+            bytes -= entry.getValue().size;
+            return true;
+        });
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.size;
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static class Entry {
+        private final String path;
+        private final ResponseEntity<byte[]> response;
+        private final long size;
+        private final long expires;
+
+        private Entry(String path, ResponseEntity<byte[]> response, long size, long expires) {
+            this.path = path;
+            this.response = response;
+            this.size = size;
+            this.expires = expires;
+        }
+    }
+}
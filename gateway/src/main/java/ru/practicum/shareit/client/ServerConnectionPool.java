@@ -0,0 +1,214 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Общий для всех клиентов шлюза пул соединений с сервером. Сами соединения держит один java.net.http.HttpClient:
+ * время жизни простаивающего keep-alive соединения и размер пула задаются при запуске системными свойствами
+ * jdk.httpclient.keepalive.timeout и jdk.httpclient.connectionPoolSize (см. ShareItGateway).
+ * Число одновременных запросов ограничено на маршрут (схема, хост и порт) и в целом: запрос ждет свободное место
+ * не дольше lease-timeout, иначе отвечаем 503, и только после этого уходит на сервер с таймаутом ответа timeout.
+ * Метрики gateway.pool.lease, gateway.pool.pending, gateway.pool.leased и gateway.pool.available с тегом route
+ * доступны через /actuator/metrics.
+ */
+@Component
+@Slf4j
+public class ServerConnectionPool {
+    private final HttpClient httpClient;
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long leaseTimeoutMillis;
+    private final Duration requestTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private int leased;
+
+    public ServerConnectionPool(@Value("${shareit-server.pool.max-total:200}") int maxTotal,
+                                @Value("${shareit-server.pool.max-per-route:100}") int maxPerRoute,
+                                @Value("${shareit-server.pool.lease-timeout:5s}") Duration leaseTimeout,
+                                @Value("${shareit-server.connect-timeout:5s}") Duration connectTimeout,
+                                @Value("${shareit-server.timeout:30s}") Duration requestTimeout,
+                                MeterRegistry meterRegistry) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.leaseTimeoutMillis = leaseTimeout.toMillis();
+        this.requestTimeout = requestTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder request) {
+        return send(request, release -> HttpResponse.BodyHandlers.ofByteArray(), true);
+    }
+
+    /**
+     * То же, что send, но тело ответа не собирается в память, а читается из потока по мере поступления.
+     * Место в пуле остается занятым, пока поток тела не будет закрыт.
+     */
+    public CompletableFuture<HttpResponse<InputStream>> sendStreaming(HttpRequest.Builder request) {
+        return send(request, release -> responseInfo -> HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofInputStream(), body -> new ReleasingInputStream(body, release)), false);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest.Builder request,
+                                                        Function<Runnable, HttpResponse.BodyHandler<T>> bodyHandler,
+                                                        boolean releaseOnResponse) {
+        HttpRequest httpRequest = request.timeout(requestTimeout).build();
+        Route route = routes.computeIfAbsent(routeOf(httpRequest.uri()), Route::new);
+        long start = System.nanoTime();
+        return lease(route).thenCompose(ignored -> {
+            route.leaseTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    release(route);
+                }
+            };
+            try {
+                return httpClient.sendAsync(httpRequest, bodyHandler.apply(release))
+                        .whenComplete((response, e) -> {
+                            if (e != null || releaseOnResponse) {
+                                release.run();
+                            }
+                        });
+            } catch (RuntimeException e) {
+                release.run();
+                throw e;
+            }
+        });
+    }
+
+    private CompletableFuture<Void> lease(Route route) {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        synchronized (this) {
+            route.waiters.removeIf(CompletableFuture::isDone);
+            if (route.waiters.isEmpty() && canLease(route)) {
+                acquire(route);
+                return CompletableFuture.completedFuture(null);
+            }
+            route.waiters.add(waiter);
+        }
+        log.debug("Нет свободного соединения с {}, запрос ждет в очереди", route.name);
+        CompletableFuture.delayedExecutor(leaseTimeoutMillis, TimeUnit.MILLISECONDS)
+                .execute(() -> waiter.completeExceptionally(new ServerUnavailableException(String.format(
+                        "Нет свободного соединения с сервером %s за %d мс", route.name, leaseTimeoutMillis))));
+        return waiter;
+    }
+
+    /**
+     * Возвращает место в пуле и отдает его первому ожидающему запросу, маршрут которого не упирается в max-per-route.
+     * Если ожидающий уже отвалился по таймауту, место сразу возвращается и отдается следующему.
+     */
+    private void release(Route route) {
+        Route next = route;
+        while (next != null) {
+            CompletableFuture<Void> waiter = null;
+            synchronized (this) {
+                next.leased--;
+                leased--;
+                next = null;
+                for (Route candidate : routes.values()) {
+                    candidate.waiters.removeIf(CompletableFuture::isDone);
+                    if (!candidate.waiters.isEmpty() && canLease(candidate)) {
+                        waiter = candidate.waiters.poll();
+                        acquire(candidate);
+                        next = candidate;
+                        break;
+                    }
+                }
+            }
+            if (waiter == null || waiter.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    private boolean canLease(Route route) {
+        return leased < maxTotal && route.leased < maxPerRoute;
+    }
+
+    private void acquire(Route route) {
+        route.leased++;
+        leased++;
+    }
+
+    private synchronized int pending(Route route) {
+        return (int) route.waiters.stream().filter(waiter -> !waiter.isDone()).count();
+    }
+
+    private synchronized int leased(Route route) {
+        return route.leased;
+    }
+
+    private synchronized int available(Route route) {
+        return Math.max(0, Math.min(maxTotal - leased, maxPerRoute - route.leased));
+    }
+
+    private static String routeOf(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+
+    private class Route {
+        private final String name;
+        private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private final Timer leaseTime;
+        private int leased;
+
+        private Route(String name) {
+            this.name = name;
+            this.leaseTime = Timer.builder("gateway.pool.lease").tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.pool.pending", this, ServerConnectionPool.this::pending).tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.pool.leased", this, ServerConnectionPool.this::leased).tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.pool.available", this, ServerConnectionPool.this::available).tag("route", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static class ReleasingInputStream extends FilterInputStream {
+        private final Runnable release;
+
+        private ReleasingInputStream(InputStream body, Runnable release) {
+            super(body);
+            this.release = release;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                release.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Склеивание одинаковых одновременных GET. Первый запрос по ключу уходит на сервер, а запросы с тем же ключом,
+ * пришедшие до его ответа, получают те же байты ответа. Ключ строится так же, как в ResponseCache, и содержит
+ * X-Sharer-User-Id, если шлюз передает его серверу, поэтому ответы, зависящие от пользователя
+ * (например, lastBooking вещи для владельца), делятся только между запросами одного пользователя.
+ * Запись удаляется до того, как ответ отдан, так что запросы после ответа идут на сервер заново.
+ * Метрики gateway.singleflight.requests (result=sent/shared) и gateway.singleflight.inflight
+ * доступны через /actuator/metrics.
+ */
+@Component
+public class SingleFlight {
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter shared;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.sent = Counter.builder("gateway.singleflight.requests").tag("result", "sent")
+                .register(meterRegistry);
+        this.shared = Counter.builder("gateway.singleflight.requests").tag("result", "shared")
+                .register(meterRegistry);
+        Gauge.builder("gateway.singleflight.inflight", flights, Map::size)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> execute(String key, String path,
+            Supplier<CompletableFuture<ResponseEntity<byte[]>>> request) {
+        Flight created = new Flight(path);
+        Flight flight = flights.putIfAbsent(key, created);
+        if (flight != null) {
+            shared.increment();
+            return flight.response.copy();
+        }
+        sent.increment();
+        try {
+            request.get().whenComplete((response, e) -> {
+                flights.remove(key, created);
+                if (e != null) {
+                    created.response.completeExceptionally(e);
+                } else {
+                    created.response.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            flights.remove(key, created);
+            created.response.completeExceptionally(e);
+        }
+        return created.response.copy();
+    }
+
+    /**
+     * Запросы, уже ушедшие на сервер по подходящим путям, больше не получают новых попутчиков:
+     * после изменения данных следующий GET должен уйти на сервер отдельно.
+     */
+    public void forget(Predicate<String> path) {
+        flights.values().removeIf(flight -> path.test(flight.path));
+    }
+
+    private static class Flight {
+        private final String path;
+        private final CompletableFuture<ResponseEntity<byte[]>> response = new CompletableFuture<>();
+
+        private Flight(String path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Состояние circuit breaker и bulkhead одного клиента для actuator-эндпоинта clients.
+ */
+@Getter
+@Builder
+public class ClientResilienceState {
+    private final String client;
+    private final String circuitBreakerState;
+    private final double failureRate;
+    private final double slowCallRate;
+    private final int bufferedCalls;
+    private final long notPermittedCalls;
+    private final int bulkheadActive;
+    private final int bulkheadQueued;
+    private final int bulkheadMaxConcurrent;
+    private final int bulkheadMaxQueue;
+    private final long bulkheadRejected;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exceptions;
+
+public class ServerUnavailableException extends RuntimeException {
+    private final String parameter;
+
+    public ServerUnavailableException(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+}
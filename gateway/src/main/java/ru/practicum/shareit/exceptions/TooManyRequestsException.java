@@ -0,0 +1,19 @@
+package ru.practicum.shareit.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final String parameter;
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String parameter, long retryAfterSeconds) {
+        this.parameter = parameter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
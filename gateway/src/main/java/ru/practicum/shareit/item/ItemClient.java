@@ -1,53 +1,70 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.SingleFlight;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      ServerConnectionPool connectionPool,
+                      SingleFlight singleFlight,
+                      ClientResilience resilience,
+                      ObjectMapper objectMapper,
+                      ResponseCache responseCache,
+                      @Value("${shareit-server.cache.ttl.items:2s}") Duration cacheTtl) {
+        super(connectionPool, singleFlight, resilience, serverUrl + API_PREFIX, objectMapper, responseCache,
+                cacheTtl);
     }
 
-    public ResponseEntity<Object> findAll(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> findAll(Long userId, Integer from, Integer size,
+                                                             Boolean withTotal) {
         Map<String, Object> parameter = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "withTotal", withTotal
         );
-        return get("?from={from}&size={size}", userId, parameter);
+        return get("?from={from}&size={size}&withTotal={withTotal}", userId, parameter);
     }
 
-    public ResponseEntity<Object> findById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<byte[]>> findById(Long itemId, Long userId) {
+        return getCached("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> create(Long userId, ItemRequestDto item) {
-        return post("", userId, item);
+    /**
+     * Вещь-ответ появляется в списках запросов, поэтому при requestId из кэша удаляются ответы /requests.
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> create(Long userId, ItemRequestDto item) {
+        CompletableFuture<ResponseEntity<byte[]>> response = post("", userId, item);
+        if (item.getRequestId() == null) {
+            return response;
+        }
+        return response.whenComplete((created, e) -> evictServerCached("/requests"));
     }
 
-    public ResponseEntity<Object> update(Long itemId, Long userId, ItemRequestDto item) {
-        return patch("/" + itemId, userId, item);
+    public CompletableFuture<ResponseEntity<byte[]>> update(Long itemId, Long userId, ItemRequestDto item) {
+        return patch("/" + itemId, userId, item)
+                .whenComplete((response, e) -> evictCached("/" + itemId));
     }
 
-    public ResponseEntity<Object> search(String text, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> search(String text, Integer from, Integer size) {
         Map<String, Object> parameter = Map.of(
                 "text", text,
                 "from", from,
@@ -56,7 +73,23 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameter);
     }
 
-    public ResponseEntity<Object> addComment(Long itemId, Long userId, CommentRequestDto comment) {
-        return post("/" + itemId + "/comment", userId, comment);
+    public CompletableFuture<ResponseEntity<byte[]>> search(String text, LocalDateTime start, LocalDateTime end,
+                                                            Integer from, Integer size) {
+        if (start == null && end == null) {
+            return search(text, from, size);
+        }
+        Map<String, Object> parameter = Map.of(
+                "text", text,
+                "start", String.valueOf(start),
+                "end", String.valueOf(end),
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&start={start}&end={end}&from={from}&size={size}", null, parameter);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> addComment(Long itemId, Long userId, CommentRequestDto comment) {
+        return post("/" + itemId + "/comment", userId, comment)
+                .whenComplete((response, e) -> evictCached("/" + itemId));
     }
 }
@@ -2,12 +2,16 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/items")
@@ -17,56 +21,54 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> findAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                  @RequestParam(defaultValue = "0") int from,
-                                  @RequestParam(defaultValue = "10") int size) {
+    public CompletableFuture<ResponseEntity<byte[]>> findAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestParam(defaultValue = "0") int from,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(defaultValue = "false") boolean withTotal) {
         log.info("Пришел /GET запрос на получение всех объектов пользователя с id {}", userId);
-        ResponseEntity<Object> items = itemClient.findAll(userId, from, size);
-        log.info("Ответ отправлен{}", items);
-        return items;
+        return itemClient.findAll(userId, from, size, withTotal);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> findById(@PathVariable Long id, @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+    public CompletableFuture<ResponseEntity<byte[]>> findById(@PathVariable Long id,
+                                                              @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         log.info("Пришел /GET запрос на получение объекта с id {}", id);
-        ResponseEntity<Object> item = itemClient.findById(id, ownerId);
-        log.info("Ответ отправлен {}", item);
-        return item;
+        return itemClient.findById(id, ownerId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long id, @Valid @RequestBody ItemRequestDto itemDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(@RequestHeader("X-Sharer-User-Id") Long id,
+                                                            @Valid @RequestBody ItemRequestDto itemDto) {
         log.info("Пришел /POST запрос на создание объекта {} от пользователя с id {}", itemDto, id);
-        ResponseEntity<Object> item = itemClient.create(id, itemDto);
-        log.info("Ответ отправлен {}", item);
-        return item;
+        return itemClient.create(id, itemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestBody ItemRequestDto itemDto, @PathVariable Long itemId,
-                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> update(@RequestBody ItemRequestDto itemDto,
+                                                            @PathVariable Long itemId,
+                                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Пришел /PATCH запрос на обновление объекта на {}, с id {}, и id {} пользователя", itemDto, itemId, userId);
-        ResponseEntity<Object> item = itemClient.update(itemId, userId, itemDto);
-        log.info("Ответ отправлен {}", item);
-        return item;
+        return itemClient.update(itemId, userId, itemDto);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text,
-                                @RequestParam(defaultValue = "0") int from,
-                                @RequestParam(defaultValue = "10") int size) {
+    public CompletableFuture<ResponseEntity<byte[]>> search(@RequestParam String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "10") int size) {
+        if ((start == null) != (end == null) || start != null && !start.isBefore(end)) {
+            throw new BadRequestException(String.format("Некорректный интервал поиска: начало %s, конец %s",
+                    start, end));
+        }
         log.info("Пришел /GET запрос на поиск объекта {}", text);
-        ResponseEntity<Object> items = itemClient.search(text, from, size);
-        log.info("Ответ отправлен {}", items);
-        return items;
+        return itemClient.search(text, start, end, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
-                                 @Valid @RequestBody CommentRequestDto commentDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> addComment(@PathVariable Long itemId,
+                                                                @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @Valid @RequestBody CommentRequestDto commentDto) {
         log.info("Пришел /POST запрос на добавление комментария предмету {} от пользователя с id {}", itemId, userId);
-        ResponseEntity<Object> comment = itemClient.addComment(itemId, userId, commentDto);
-        log.info("Ответ отправлен {}", comment);
-        return comment;
+        return itemClient.addComment(itemId, userId, commentDto);
     }
 }
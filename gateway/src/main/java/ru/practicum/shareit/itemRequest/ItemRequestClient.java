@@ -1,48 +1,67 @@
 package ru.practicum.shareit.itemRequest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.SingleFlight;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestRequestDto;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             ServerConnectionPool connectionPool,
+                             SingleFlight singleFlight,
+                             ClientResilience resilience,
+                             ObjectMapper objectMapper,
+                             ResponseCache responseCache,
+                             @Value("${shareit-server.cache.ttl.requests:2s}") Duration cacheTtl) {
+        super(connectionPool, singleFlight, resilience, serverUrl + API_PREFIX, objectMapper, responseCache,
+                cacheTtl);
     }
 
-    public ResponseEntity<Object> create(Long userId, ItemRequestRequestDto itemRequest) {
-        return post("", userId, itemRequest);
+    public CompletableFuture<ResponseEntity<byte[]>> create(Long userId, ItemRequestRequestDto itemRequest) {
+        return post("", userId, itemRequest)
+                .whenComplete((response, e) -> evictCachedUnder(""));
     }
 
-    public ResponseEntity<Object> getAllByUser(Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByUser(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAll(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return getCached("/all?from={from}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> getAll(Long userId, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return getCached("/all?after={after}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> getCandidates(Long requestId, Long userId) {
+        return get("/" + requestId + "/candidates", userId);
     }
 
-    public ResponseEntity<Object> getById(Long requestId, Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getById(Long requestId, Long userId) {
         return get("/" + requestId, userId);
     }
 }
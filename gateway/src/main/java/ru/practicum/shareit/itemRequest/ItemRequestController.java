@@ -3,52 +3,65 @@ package ru.practicum.shareit.itemRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/requests")
 @AllArgsConstructor
 @Slf4j
+@Validated
 public class ItemRequestController {
     private final ItemRequestClient itemRequestClientClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                 @Valid @RequestBody ItemRequestRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @Valid @RequestBody ItemRequestRequestDto itemRequestDto) {
         log.info("Пришел /POST запрос на создание запроса {} от пользователя с id {}", itemRequestDto, userId);
-        ResponseEntity<Object> itemRequestResponseDto = itemRequestClientClient.create(userId, itemRequestDto);
-        log.info("Ответ отправлен {}", itemRequestResponseDto);
-        return itemRequestResponseDto;
+        return itemRequestClientClient.create(userId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Пришел /GET запрос на получение списка запросов от пользователя с id {}", userId);
-        ResponseEntity<Object> itemRequestResponseDtos = itemRequestClientClient.getAllByUser(userId);
-        log.info("Ответ отправлен {}", itemRequestResponseDtos);
-        return itemRequestResponseDtos;
+        return itemRequestClientClient.getAllByUser(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "10") int size,
-                                               @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAll(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                            @Positive @RequestParam(defaultValue = "10") int size,
+                                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Пришел /GET запрос на получение списка запросов от пользователя с id {} созданных другим пользователем",
                 userId);
-        ResponseEntity<Object> itemRequestResponseDtos = itemRequestClientClient.getAll(userId, from, size);
-        log.info("Ответ отправлен {}", itemRequestResponseDtos);
-        return itemRequestResponseDtos;
+        return itemRequestClientClient.getAll(userId, from, size);
+    }
+
+    @GetMapping(path = "/all", params = "after")
+    public CompletableFuture<ResponseEntity<byte[]>> getAllAfter(@RequestParam String after,
+                                                                 @Positive @RequestParam(defaultValue = "10") int size,
+                                                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Пришел /GET запрос на получение страницы запросов других пользователей для пользователя с id {} " +
+                "после курсора {}", userId, after);
+        return itemRequestClientClient.getAll(userId, after, size);
+    }
+
+    @GetMapping("/{requestId}/candidates")
+    public CompletableFuture<ResponseEntity<byte[]>> getCandidates(@PathVariable Long requestId,
+                                                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Пришел /GET запрос на получение подобранных вещей для запроса с id {}", requestId);
+        return itemRequestClientClient.getCandidates(requestId, userId);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@PathVariable Long requestId,
-                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getById(@PathVariable Long requestId,
+                                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Пришел /GET запрос на получение запроса по id");
-        ResponseEntity<Object> itemRequestResponseDto = itemRequestClientClient.getById(requestId, userId);
-        log.info("Ответ отправлен {}", itemRequestResponseDto);
-        return itemRequestResponseDto;
+        return itemRequestClientClient.getById(requestId, userId);
     }
 }
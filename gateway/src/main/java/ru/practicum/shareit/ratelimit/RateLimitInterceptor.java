@@ -0,0 +1,82 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.exceptions.TooManyRequestsException;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверяет лимит пользователя до вызова контроллера, то есть до обращения к клиентам сервера.
+ * Пользователь определяется по X-Sharer-User-Id, а если заголовка нет — по адресу клиента.
+ * Адресу из X-Forwarded-For доверяем, только если запрос пришел с loopback: так подзапросы пакета,
+ * которые шлюз отправляет сам себе, попадают в корзину исходного клиента, а не в общую корзину 127.0.0.1.
+ * Отклоненные запросы считаются в метрике gateway.ratelimit.rejected с тегом route (метод и шаблон пути).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final UserRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String userId = request.getHeader(USER_ID_HEADER);
+        String user = userId != null ? userId : "addr:" + clientAddress(request);
+        long wait = rateLimiter.tryAcquire(routeGroup(request.getServletPath()), user);
+        if (wait == 0) {
+            return true;
+        }
+        String route = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        meterRegistry.counter("gateway.ratelimit.rejected", "route", route).increment();
+        log.debug("Превышен лимит запросов {} для пользователя {}", route, user);
+        long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        throw new TooManyRequestsException(String.format("Слишком много запросов, повторите через %d с",
+                retryAfter), retryAfter);
+    }
+
+    /**
+     * Адрес клиента: последний адрес X-Forwarded-For, если запрос пришел с loopback или с адреса самого шлюза
+     * (так приходят подзапросы пакета), иначе адрес соединения.
+     */
+    public static String clientAddress(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || !remoteAddr.equals(request.getLocalAddr()) && !isLoopback(remoteAddr)) {
+            return remoteAddr;
+        }
+        String forwarded = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+        return forwarded.isEmpty() ? remoteAddr : forwarded;
+    }
+
+    private static boolean isLoopback(String address) {
+        try {
+            // getRemoteAddr всегда возвращает IP-адрес, поэтому getByName не обращается к DNS
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static String routeGroup(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Лимиты запросов на пользователя. rate — запросов в секунду, burst — сколько запросов можно сделать подряд.
+ * Группа маршрутов — первый сегмент пути (bookings, items, requests, users); для групп без своих настроек
+ * берутся rate и burst верхнего уровня.
+ */
+@ConfigurationProperties("shareit-gateway.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private double rate = 20;
+    private int burst = 40;
+    private Duration sweepInterval = Duration.ofMinutes(1);
+    private Map<String, Limit> routes = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private double rate;
+        private int burst;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket на пару (группа маршрутов, пользователь) без блокировок. Состояние корзины — одно число:
+ * момент, когда она снова станет полной (алгоритм GCRA), и оно меняется через compareAndSet.
+ * Полная корзина ничем не отличается от новой, поэтому фоновая очистка удаляет такие корзины,
+ * и память занимают только пользователи, отправлявшие запросы за последние burst / rate секунд.
+ * Число корзин видно в метрике gateway.ratelimit.buckets.
+ */
+@Component
+public class UserRateLimiter {
+    private final Limit defaultLimit;
+    private final Map<String, Limit> limits = new HashMap<>();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.defaultLimit = new Limit(properties.getRate(), properties.getBurst());
+        properties.getRoutes().forEach((group, limit) -> limits.put(group, new Limit(limit.getRate(),
+                limit.getBurst())));
+        long sweepInterval = properties.getSweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Забирает токен из корзины пользователя user в группе group.
+     *
+     * @return 0, если запрос можно пропустить, иначе сколько наносекунд ждать следующего токена
+     */
+    public long tryAcquire(String group, String user) {
+        Limit limit = limits.getOrDefault(group, defaultLimit);
+        long now = System.nanoTime();
+        String key = group + ":" + user;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        while (true) {
+            long full = bucket.get();
+            long start = full - now > 0 ? full : now;
+            long wait = start - now - limit.tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, start + limit.interval)) {
+                return 0;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private static class Limit {
+        private final long interval;
+        private final long tolerance;
+
+        private Limit(double rate, int burst) {
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            this.tolerance = interval * (Math.max(burst, 1) - 1);
+        }
+    }
+}
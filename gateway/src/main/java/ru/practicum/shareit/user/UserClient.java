@@ -1,46 +1,88 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientResilience;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.SingleFlight;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+                      ServerConnectionPool connectionPool,
+                      SingleFlight singleFlight,
+                      ClientResilience resilience,
+                      ObjectMapper objectMapper,
+                      ResponseCache responseCache) {
+        super(connectionPool, singleFlight, resilience, serverUrl + API_PREFIX, objectMapper, responseCache, null);
     }
 
-    public ResponseEntity<Object> getALl() {
+    public CompletableFuture<ResponseEntity<byte[]>> getALl() {
         return get("");
     }
 
-    public ResponseEntity<Object> getById(Long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAll(Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> getAllAfter(Long after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("?after={after}&size={size}", null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getAllAsStream() {
+        return getStreaming("?stream=true");
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> getById(Long id) {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> create(UserRequestDto user) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(UserRequestDto user) {
         return post("", user);
     }
 
-    public ResponseEntity<Object> update(Long userId, UserRequestDto user) {
+    public CompletableFuture<ResponseEntity<byte[]>> update(Long userId, UserRequestDto user) {
         return patch("/" + userId, user);
     }
 
-    public ResponseEntity<Object> delete(Long userId) {
-        return delete("/" + userId);
+    public CompletableFuture<ResponseEntity<byte[]>> delete(Long userId) {
+        return delete("/" + userId)
+                .whenComplete((response, e) -> evictOwnedResources());
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> deleteAsync(Long userId) {
+        return delete("/" + userId + "?async=true")
+                .whenComplete((response, e) -> evictOwnedResources());
+    }
+
+    /**
+     * Вместе с пользователем удаляются его вещи, бронирования, отзывы и запросы. Ключи кэша не знают владельца,
+     * поэтому удаляются все закэшированные ответы этих ресурсов.
+     */
+    private void evictOwnedResources() {
+        evictServerCached("/items");
+        evictServerCached("/bookings");
+        evictServerCached("/requests");
     }
 }
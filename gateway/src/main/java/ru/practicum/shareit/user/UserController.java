@@ -3,50 +3,77 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
 @Slf4j
+@Validated
 public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<byte[]>> getAll() {
         log.info("Пришел /GET запрос на получение всех пользователей");
-        ResponseEntity<Object> users = userClient.getALl();
-        return users;
+        return userClient.getALl();
+    }
+
+    @GetMapping(params = "from")
+    public CompletableFuture<ResponseEntity<byte[]>> getAll(@PositiveOrZero @RequestParam Integer from,
+            @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Пришел /GET запрос на получение страницы пользователей from {} size {}", from, size);
+        return userClient.getAll(from, size);
+    }
+
+    @GetMapping(params = "after")
+    public CompletableFuture<ResponseEntity<byte[]>> getAllAfter(@RequestParam Long after,
+            @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Пришел /GET запрос на получение страницы пользователей после id {}", after);
+        return userClient.getAllAfter(after, size);
+    }
+
+    @GetMapping(params = "stream=true")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> getAllAsStream() {
+        log.info("Пришел /GET запрос на потоковое получение всех пользователей");
+        return userClient.getAllAsStream();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getById(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> getById(@PathVariable Long id) {
         log.info("Пришел /GET запрос на получение пользователя по id {}", id);
-        ResponseEntity<Object> user = userClient.getById(id);
-        return user;
+        return userClient.getById(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@Valid @RequestBody UserRequestDto user) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(@Valid @RequestBody UserRequestDto user) {
         log.info("Пришел /POST запрос на создание пользователя {}", user);
-        ResponseEntity<Object> createdUser = userClient.create(user);
-        return createdUser;
+        return userClient.create(user);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> update(@RequestBody UserRequestDto user, @PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> update(@RequestBody UserRequestDto user, @PathVariable Long id) {
         log.info("Пришел /PATCH запрос на изменение данных пользователя с id {}", id);
-        ResponseEntity<Object> updatedUser = userClient.update(id, user);
-        return updatedUser;
+        return userClient.update(id, user);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> delete(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> delete(@PathVariable Long id) {
         log.info("Пришел /DELETE запрос на удаление пользователя с id {}", id);
-        ResponseEntity<Object> deletedUser = userClient.delete(id);
-        return deletedUser;
+        return userClient.delete(id);
+    }
+
+    @DeleteMapping(value = "/{id}", params = "async=true")
+    public CompletableFuture<ResponseEntity<byte[]>> deleteAsync(@PathVariable Long id) {
+        log.info("Пришел /DELETE запрос на фоновое удаление пользователя с id {}", id);
+        return userClient.deleteAsync(id);
     }
 }
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.batch.dto.BatchRequestDto;
+import ru.practicum.shareit.batch.dto.BatchResponseDto;
+import ru.practicum.shareit.exceptions.BadRequestException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchDispatcherTest {
+    private static final String CLIENT_ADDRESS = "10.0.0.5";
+
+    ObjectMapper objectMapper;
+    HttpServer server;
+    String gatewayUrl;
+    BatchDispatcher batchDispatcher;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        objectMapper = new ObjectMapper();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().toString();
+            try {
+                Thread.sleep(path.endsWith("/slow") ? 2000 : path.endsWith("/1") ? 200 : 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String user = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                    "path", path,
+                    "user", user == null ? "" : user,
+                    "forwardedFor", exchange.getRequestHeaders().getFirst("X-Forwarded-For")));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("X-Total-Count", "1");
+            exchange.getResponseHeaders().add("Set-Cookie", "a=b");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        gatewayUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        batchDispatcher = new BatchDispatcher(objectMapper, 3, Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.stop(0);
+    }
+
+    @Test
+    void executeRejectsEmptyAndTooLargeBatchesTest() {
+        assertThrows(BadRequestException.class, () -> execute(List.of()));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/users"), get("/users"), get("/users"),
+                get("/users"))));
+    }
+
+    @Test
+    void executeRejectsWrongMethodsAndPathsTest() {
+        assertThrows(BadRequestException.class, () -> execute(List.of(new BatchRequestDto("HEAD", "/users", null))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(new BatchRequestDto(null, "/users", null))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("users"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/actuator/health"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/users/../actuator"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/items/%2e%2e/batch"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/users/..;/actuator"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/users/./1"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("//evil/users"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/users/{id}"))));
+        assertThrows(BadRequestException.class, () -> execute(List.of(get("/users"), get(null))));
+    }
+
+    @Test
+    void executeKeepsRequestOrderAndForwardsClientTest() {
+        List<BatchResponseDto> responses = batchDispatcher.execute(gatewayUrl, null, CLIENT_ADDRESS,
+                List.of(get("/users/1"), get("/items?text=a"), get("/users/2"))).join();
+
+        assertEquals(List.of("/users/1", "/items?text=a", "/users/2"), responses.stream()
+                .map(response -> response.getBody().get("path").asText())
+                .collect(Collectors.toList()));
+        BatchResponseDto first = responses.get(0);
+        assertEquals(200, first.getStatus());
+        assertEquals("", first.getBody().get("user").asText());
+        assertEquals(CLIENT_ADDRESS, first.getBody().get("forwardedFor").asText());
+        assertEquals(Map.of("x-total-count", "1"), first.getHeaders());
+    }
+
+    @Test
+    void executeAllowsEncodedQueryTest() {
+        BatchResponseDto response = execute(List.of(get("/items/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C")))
+                .get(0);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("/items/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C", response.getBody().get("path").asText());
+    }
+
+    @Test
+    void executeForwardsUserIdTest() {
+        BatchResponseDto response = batchDispatcher.execute(gatewayUrl, "7", CLIENT_ADDRESS,
+                List.of(get("/bookings"))).join().get(0);
+
+        assertEquals("7", response.getBody().get("user").asText());
+    }
+
+    @Test
+    void executeAnswers504ForSubRequestPastDeadlineTest() {
+        List<BatchResponseDto> responses = execute(List.of(get("/users/2"), get("/items/slow")));
+
+        assertEquals(200, responses.get(0).getStatus());
+        assertEquals("/users/2", responses.get(0).getBody().get("path").asText());
+        assertEquals(504, responses.get(1).getStatus());
+        assertEquals("Подзапрос GET /items/slow не выполнен за 500 мс",
+                responses.get(1).getBody().get("error").asText());
+    }
+
+    private List<BatchResponseDto> execute(List<BatchRequestDto> requests) {
+        return batchDispatcher.execute(gatewayUrl, null, CLIENT_ADDRESS, requests).join();
+    }
+
+    private static BatchRequestDto get(String path) {
+        return new BatchRequestDto("GET", path, null);
+    }
+}
@@ -0,0 +1,237 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.client.dto.ClientResilienceState;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+class BaseClientTest {
+    HttpServer server;
+    SimpleMeterRegistry meterRegistry;
+    ClientResilience resilience;
+    TestClient client;
+    CountDownLatch answer;
+    volatile int status;
+    volatile HttpExchange exchange;
+    volatile String requestBody;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        answer = new CountDownLatch(0);
+        status = 200;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            this.exchange = exchange;
+            requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            try {
+                answer.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        resilience = new ClientResilience(new ClientResilienceProperties(), meterRegistry);
+        client = client(10, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.stop(0);
+    }
+
+    @Test
+    void postSendsUserIdAndJsonBodyTest() {
+        ResponseEntity<byte[]> response = client.post("", 1L, Map.of("name", "name")).join();
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("{\"id\":1}", new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals("POST", exchange.getRequestMethod());
+        assertEquals("/users", exchange.getRequestURI().getPath());
+        assertEquals("1", exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+        assertEquals("application/json", exchange.getRequestHeaders().getFirst("Content-Type"));
+        assertEquals("{\"name\":\"name\"}", requestBody);
+    }
+
+    @Test
+    void getExpandsParametersWithoutUserIdTest() {
+        client.get("?from={from}&size={size}", null, Map.of("from", 0, "size", 10)).join();
+
+        assertEquals("GET", exchange.getRequestMethod());
+        assertEquals("/users?from=0&size=10", exchange.getRequestURI().toString());
+        assertFalse(exchange.getRequestHeaders().containsKey("X-Sharer-User-Id"));
+    }
+
+    @Test
+    void requestDoesNotBlockCallerTest() {
+        answer = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<byte[]>> response = client.get("/1", 1L);
+
+        assertFalse(response.isDone());
+        answer.countDown();
+        assertEquals(200, response.join().getStatusCodeValue());
+    }
+
+    @Test
+    void serverErrorIsCountedByCircuitBreakerTest() {
+        status = 503;
+
+        assertEquals(503, client.post("", 1L, null).join().getStatusCodeValue());
+
+        ClientResilienceState state = resilience.getState("users").orElseThrow();
+        assertEquals(1, state.getBufferedCalls());
+        assertEquals(100.0, state.getFailureRate());
+    }
+
+    @Test
+    void leaseTimeoutIsNotCountedByCircuitBreakerTest() {
+        answer = new CountDownLatch(1);
+        client = client(1, Duration.ofMillis(50));
+
+        CompletableFuture<ResponseEntity<byte[]>> first = client.post("", 1L, null);
+        CompletableFuture<ResponseEntity<byte[]>> second = client.post("", 1L, null);
+        CompletionException e = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(ServerUnavailableException.class, e.getCause());
+        answer.countDown();
+        assertEquals(200, first.join().getStatusCodeValue());
+
+        ClientResilienceState state = resilience.getState("users").orElseThrow();
+        assertEquals(1, state.getBufferedCalls());
+        assertEquals(0.0, state.getFailureRate());
+    }
+
+    @Test
+    void getStreamingCopiesBodyWithoutHopByHopHeadersTest() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = client.getStreaming("?stream=true").join();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("{\"id\":1}", body.toString(StandardCharsets.UTF_8));
+        assertEquals(List.of("application/json"), response.getHeaders().get("Content-Type"));
+        assertFalse(response.getHeaders().containsKey("Content-Length"));
+        assertEquals("/users?stream=true", exchange.getRequestURI().toString());
+        assertEquals(1, resilience.getState("users").orElseThrow().getBufferedCalls());
+    }
+
+    @Test
+    void evictServerCachedRemovesOtherClientResponsesTest() {
+        ResponseCache responseCache = new ResponseCache(DataSize.ofKilobytes(1), meterRegistry);
+        TestClient items = cachingClient("/items", responseCache);
+        TestClient bookings = cachingClient("/bookings", responseCache);
+        items.getCached("/1", 1L).join();
+        items.getCached("/2", 1L).join();
+        bookings.getCached("/1", 1L).join();
+        assertEquals(3, responseCache.size());
+
+        bookings.evictServerCached("/items/1");
+        assertEquals(2, responseCache.size());
+
+        bookings.evictServerCached("/items");
+        assertEquals(1, responseCache.size());
+    }
+
+    @Test
+    void prepareGatewayResponsePassesBytesAndStripsHopByHopHeadersTest() {
+        byte[] body = {(byte) 0xd0, (byte) 0x94, 0, (byte) 0xff};
+        ResponseEntity<byte[]> response = BaseClient.prepareGatewayResponse(response(201, body, Map.of(
+                "Content-Type", List.of("application/json"),
+                "Location", List.of("/users/1"),
+                "X-Total-Count", List.of("1"),
+                "Connection", List.of("keep-alive"),
+                "Content-Length", List.of("4"),
+                "Transfer-Encoding", List.of("chunked"))));
+
+        assertEquals(201, response.getStatusCodeValue());
+        assertArrayEquals(body, response.getBody());
+        assertEquals(List.of("application/json"), response.getHeaders().get("Content-Type"));
+        assertEquals(List.of("/users/1"), response.getHeaders().get("Location"));
+        assertEquals(List.of("1"), response.getHeaders().get("X-Total-Count"));
+        assertFalse(response.getHeaders().containsKey("Connection"));
+        assertFalse(response.getHeaders().containsKey("Content-Length"));
+        assertFalse(response.getHeaders().containsKey("Transfer-Encoding"));
+    }
+
+    @Test
+    void prepareGatewayResponseWithEmptyBodyTest() {
+        ResponseEntity<byte[]> response = BaseClient.prepareGatewayResponse(response(404, new byte[0], Map.of()));
+
+        assertEquals(404, response.getStatusCodeValue());
+        assertNull(response.getBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<byte[]> response(int status, byte[] body, Map<String, List<String>> headers) {
+        HttpResponse<byte[]> response = Mockito.mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body);
+        when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+        return response;
+    }
+
+    private TestClient client(int maxConnections, Duration leaseTimeout) {
+        ServerConnectionPool connectionPool = new ServerConnectionPool(maxConnections, maxConnections, leaseTimeout,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), meterRegistry);
+        return new TestClient("http://127.0.0.1:" + server.getAddress().getPort() + "/users", connectionPool,
+                new SingleFlight(meterRegistry), resilience);
+    }
+
+    private TestClient cachingClient(String resource, ResponseCache responseCache) {
+        ServerConnectionPool connectionPool = new ServerConnectionPool(10, 10, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), Duration.ofSeconds(5), meterRegistry);
+        return new TestClient("http://127.0.0.1:" + server.getAddress().getPort() + resource, connectionPool,
+                new SingleFlight(meterRegistry), resilience, responseCache);
+    }
+
+    private static class TestClient extends BaseClient {
+        private TestClient(String baseUrl, ServerConnectionPool connectionPool, SingleFlight singleFlight,
+                           ClientResilience resilience) {
+            super(connectionPool, singleFlight, resilience, baseUrl, new ObjectMapper());
+        }
+
+        private TestClient(String baseUrl, ServerConnectionPool connectionPool, SingleFlight singleFlight,
+                           ClientResilience resilience, ResponseCache responseCache) {
+            super(connectionPool, singleFlight, resilience, baseUrl, new ObjectMapper(), responseCache,
+                    Duration.ofMinutes(1));
+        }
+    }
+}
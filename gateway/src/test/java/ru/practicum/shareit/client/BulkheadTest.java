@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+    ClientResilienceProperties.BulkheadProperties properties;
+    AtomicInteger started;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new ClientResilienceProperties.BulkheadProperties();
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueue(1);
+        properties.setMaxWait(Duration.ofSeconds(5));
+        started = new AtomicInteger();
+    }
+
+    @Test
+    void releaseHandsPlaceToQueuedCallTest() {
+        Bulkhead bulkhead = new Bulkhead("items", properties);
+        CompletableFuture<String> firstCall = new CompletableFuture<>();
+        CompletableFuture<String> secondCall = new CompletableFuture<>();
+
+        CompletableFuture<String> first = bulkhead.execute(() -> start(firstCall));
+        CompletableFuture<String> second = bulkhead.execute(() -> start(secondCall));
+        assertEquals(1, started.get());
+        assertEquals(1, bulkhead.active());
+        assertEquals(1, bulkhead.queued());
+
+        firstCall.complete("first");
+        assertEquals("first", first.join());
+        assertEquals(2, started.get());
+        assertEquals(1, bulkhead.active());
+        assertEquals(0, bulkhead.queued());
+
+        secondCall.complete("second");
+        assertEquals("second", second.join());
+        assertEquals(0, bulkhead.active());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFullTest() {
+        Bulkhead bulkhead = new Bulkhead("items", properties);
+        bulkhead.execute(() -> start(new CompletableFuture<>()));
+        bulkhead.execute(() -> start(new CompletableFuture<>()));
+
+        CompletableFuture<String> rejected = bulkhead.execute(() -> start(new CompletableFuture<>()));
+
+        assertTrue(rejected.isCompletedExceptionally());
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(ServerUnavailableException.class, e.getCause());
+        assertEquals(1, bulkhead.rejected());
+        assertEquals(1, started.get());
+    }
+
+    @Test
+    void queuedCallFailsAfterMaxWaitAndPlaceIsNotLostTest() throws InterruptedException {
+        properties.setMaxWait(Duration.ofMillis(50));
+        Bulkhead bulkhead = new Bulkhead("items", properties);
+        CompletableFuture<String> firstCall = new CompletableFuture<>();
+        CompletableFuture<String> first = bulkhead.execute(() -> start(firstCall));
+
+        CompletableFuture<String> timedOut = bulkhead.execute(() -> start(new CompletableFuture<>()));
+        CompletionException e = assertThrows(CompletionException.class, timedOut::join);
+        assertInstanceOf(ServerUnavailableException.class, e.getCause());
+        for (int i = 0; i < 50 && bulkhead.rejected() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, bulkhead.rejected());
+        assertEquals(0, bulkhead.queued());
+
+        firstCall.complete("first");
+        assertEquals("first", first.join());
+        assertEquals(0, bulkhead.active());
+        assertEquals("next", bulkhead.execute(() -> start(CompletableFuture.completedFuture("next"))).join());
+        assertEquals(2, started.get());
+    }
+
+    @Test
+    void callThatThrowsReleasesPlaceTest() {
+        Bulkhead bulkhead = new Bulkhead("items", properties);
+
+        CompletableFuture<String> failed = bulkhead.execute(() -> {
+            throw new IllegalStateException();
+        });
+
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals(0, bulkhead.active());
+        assertFalse(bulkhead.execute(() -> start(new CompletableFuture<>())).isDone());
+    }
+
+    private CompletableFuture<String> start(CompletableFuture<String> call) {
+        started.incrementAndGet();
+        return call;
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    ClientResilienceProperties.CircuitBreakerProperties properties;
+
+    @BeforeEach
+    void beforeEach() {
+        properties = new ClientResilienceProperties.CircuitBreakerProperties();
+        properties.setWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallRateThreshold(75);
+        properties.setSlowCallDuration(Duration.ofSeconds(1));
+        properties.setOpenDuration(Duration.ofMillis(50));
+        properties.setHalfOpenCalls(2);
+    }
+
+    @Test
+    void staysClosedUntilMinimumCallsTest() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties);
+
+        circuitBreaker.onResult(FAST, true);
+        circuitBreaker.onResult(FAST, true);
+        circuitBreaker.onResult(FAST, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertEquals(100.0, circuitBreaker.failureRate());
+        assertEquals(3, circuitBreaker.bufferedCalls());
+    }
+
+    @Test
+    void opensWhenSlidingWindowReachesFailureRateTest() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties);
+
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertEquals(25.0, circuitBreaker.failureRate());
+
+        circuitBreaker.onResult(FAST, false);
+        assertEquals(25.0, circuitBreaker.failureRate());
+        assertEquals(4, circuitBreaker.bufferedCalls());
+
+        circuitBreaker.onResult(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.notPermitted());
+    }
+
+    @Test
+    void opensWhenSlowCallRateReachedTest() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties);
+
+        circuitBreaker.onResult(SLOW, false);
+        circuitBreaker.onResult(SLOW, false);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(SLOW, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    @Test
+    void halfOpenLimitsTrialCallsAndClosesOnSuccessTest() throws InterruptedException {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        Thread.sleep(properties.getOpenDuration().toMillis() + 10);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onResult(FAST, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        circuitBreaker.onResult(FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertEquals(0, circuitBreaker.bufferedCalls());
+    }
+
+    @Test
+    void halfOpenReopensOnFailuresTest() throws InterruptedException {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        Thread.sleep(properties.getOpenDuration().toMillis() + 10);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(FAST, true);
+        circuitBreaker.onResult(FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void releasePermissionReturnsHalfOpenTrialCallTest() throws InterruptedException {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        Thread.sleep(properties.getOpenDuration().toMillis() + 10);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(0, circuitBreaker.bufferedCalls());
+    }
+
+    private CircuitBreaker openCircuitBreaker() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties);
+        for (int i = 0; i < properties.getMinimumCalls(); i++) {
+            circuitBreaker.onResult(FAST, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        return circuitBreaker;
+    }
+}
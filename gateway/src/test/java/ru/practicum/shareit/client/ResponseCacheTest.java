@@ -0,0 +1,105 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    ResponseCache cache;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new ResponseCache(DataSize.ofBytes(10), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void putEvictsLeastRecentlyUsedWhenBytesExceededTest() {
+        put("/items/1", 4);
+        put("/items/2", 4);
+        assertNotNull(cache.get(key("/items/1")));
+
+        put("/items/3", 4);
+
+        assertNotNull(cache.get(key("/items/1")));
+        assertNull(cache.get(key("/items/2")));
+        assertNotNull(cache.get(key("/items/3")));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void putSkipsTooLargeAndNotSuccessfulResponsesTest() {
+        put("/items/1", 11);
+        cache.put(key("/items/2"), URI.create("/items/2"), ResponseEntity.notFound().build(), TTL,
+                cache.generation());
+
+        assertNull(cache.get(key("/items/1")));
+        assertNull(cache.get(key("/items/2")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void putSkipsResponseLoadedBeforeEvictionTest() {
+        long generation = cache.generation();
+        cache.evict("/items/1");
+
+        cache.put(key("/items/1"), URI.create("/items/1"), ResponseEntity.ok(new byte[1]), TTL, generation);
+
+        assertNull(cache.get(key("/items/1")));
+        put("/items/1", 1);
+        assertNotNull(cache.get(key("/items/1")));
+    }
+
+    @Test
+    void evictRemovesPathForAllParametersTest() {
+        put("/items?from=0", 1);
+        put("/items?from=10", 1);
+        put("/items/1", 1);
+
+        cache.evict("/items");
+
+        assertNull(cache.get(key("/items?from=0")));
+        assertNull(cache.get(key("/items?from=10")));
+        assertNotNull(cache.get(key("/items/1")));
+    }
+
+    @Test
+    void evictUnderRemovesNestedPathsOnlyTest() {
+        put("/items/1", 1);
+        put("/items/1/comment", 1);
+        put("/items/10", 1);
+
+        cache.evictUnder("/items/1");
+
+        assertNull(cache.get(key("/items/1")));
+        assertNull(cache.get(key("/items/1/comment")));
+        assertNotNull(cache.get(key("/items/10")));
+    }
+
+    @Test
+    void getSkipsExpiredResponseTest() {
+        cache.put(key("/items/1"), URI.create("/items/1"), ResponseEntity.ok(new byte[1]), Duration.ZERO,
+                cache.generation());
+
+        assertNull(cache.get(key("/items/1")));
+        assertEquals(0, cache.size());
+    }
+
+    private void put(String uri, int size) {
+        cache.put(key(uri), URI.create(uri), ResponseEntity.ok(new byte[size]), TTL, cache.generation());
+    }
+
+    private static String key(String uri) {
+        return ResponseCache.key("GET", URI.create(uri), 1L);
+    }
+}
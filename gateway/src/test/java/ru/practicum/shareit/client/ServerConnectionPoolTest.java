@@ -0,0 +1,155 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ServerConnectionPoolTest {
+    SimpleMeterRegistry meterRegistry;
+    List<HttpServer> servers;
+    CountDownLatch answer;
+    AtomicInteger received;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        servers = new ArrayList<>();
+        answer = new CountDownLatch(1);
+        received = new AtomicInteger();
+    }
+
+    @AfterEach
+    void afterEach() {
+        answer.countDown();
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void releaseHandsPlaceToWaiterTest() throws IOException {
+        ServerConnectionPool pool = pool(1, 1, Duration.ofSeconds(5));
+        String url = startServer();
+
+        CompletableFuture<HttpResponse<byte[]>> first = pool.send(HttpRequest.newBuilder(URI.create(url)));
+        CompletableFuture<HttpResponse<byte[]>> second = pool.send(HttpRequest.newBuilder(URI.create(url)));
+        awaitReceived(1);
+
+        assertFalse(second.isDone());
+        assertEquals(1.0, meterRegistry.get("gateway.pool.pending").gauge().value());
+        assertEquals(1, received.get());
+
+        answer.countDown();
+        assertEquals(200, first.join().statusCode());
+        assertEquals(200, second.join().statusCode());
+        assertEquals(2, received.get());
+        assertEquals(0.0, meterRegistry.get("gateway.pool.leased").gauge().value());
+    }
+
+    @Test
+    void releaseHandsPlaceToWaiterOfOtherRouteTest() throws IOException {
+        ServerConnectionPool pool = pool(1, 1, Duration.ofSeconds(5));
+        String first = startServer();
+        String second = startServer();
+
+        CompletableFuture<HttpResponse<byte[]>> firstResponse = pool.send(HttpRequest.newBuilder(URI.create(first)));
+        CompletableFuture<HttpResponse<byte[]>> secondResponse = pool.send(HttpRequest.newBuilder(URI.create(second)));
+        awaitReceived(1);
+
+        assertFalse(secondResponse.isDone());
+        answer.countDown();
+        assertEquals(200, firstResponse.join().statusCode());
+        assertEquals(200, secondResponse.join().statusCode());
+    }
+
+    @Test
+    void waiterFailsAfterLeaseTimeoutAndPlaceIsNotLostTest() throws IOException {
+        ServerConnectionPool pool = pool(1, 1, Duration.ofMillis(100));
+        String url = startServer();
+
+        CompletableFuture<HttpResponse<byte[]>> first = pool.send(HttpRequest.newBuilder(URI.create(url)));
+        CompletableFuture<HttpResponse<byte[]>> second = pool.send(HttpRequest.newBuilder(URI.create(url)));
+
+        CompletionException e = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(ServerUnavailableException.class, e.getCause());
+        assertEquals(0.0, meterRegistry.get("gateway.pool.pending").gauge().value());
+
+        answer.countDown();
+        assertEquals(200, first.join().statusCode());
+        assertEquals(200, pool.send(HttpRequest.newBuilder(URI.create(url))).join().statusCode());
+        assertEquals(2, received.get());
+    }
+
+    @Test
+    void streamingResponseKeepsPlaceUntilBodyIsClosedTest() throws IOException {
+        ServerConnectionPool pool = pool(1, 1, Duration.ofSeconds(5));
+        String url = startServer();
+        answer.countDown();
+
+        HttpResponse<InputStream> first = pool.sendStreaming(HttpRequest.newBuilder(URI.create(url))).join();
+        assertEquals(1.0, meterRegistry.get("gateway.pool.leased").gauge().value());
+        CompletableFuture<HttpResponse<byte[]>> second = pool.send(HttpRequest.newBuilder(URI.create(url)));
+        assertFalse(second.isDone());
+
+        first.body().close();
+        assertEquals(200, second.join().statusCode());
+        assertEquals(0.0, meterRegistry.get("gateway.pool.leased").gauge().value());
+    }
+
+    private ServerConnectionPool pool(int maxTotal, int maxPerRoute, Duration leaseTimeout) {
+        return new ServerConnectionPool(maxTotal, maxPerRoute, leaseTimeout, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private String startServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            received.incrementAndGet();
+            try {
+                answer.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    private void awaitReceived(int count) {
+        for (int i = 0; i < 50 && received.get() < count; i++) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertEquals(count, received.get());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+    SimpleMeterRegistry meterRegistry;
+    SingleFlight singleFlight;
+    AtomicInteger sent;
+    CompletableFuture<ResponseEntity<byte[]>> server;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        sent = new AtomicInteger();
+        server = new CompletableFuture<>();
+    }
+
+    @Test
+    void executeSharesResponseOfRequestInFlightTest() {
+        ResponseEntity<byte[]> response = ResponseEntity.ok(new byte[]{1});
+
+        CompletableFuture<ResponseEntity<byte[]>> first = execute("GET /items/1 1", "/items/1");
+        CompletableFuture<ResponseEntity<byte[]>> second = execute("GET /items/1 1", "/items/1");
+        assertFalse(second.isDone());
+        server.complete(response);
+
+        assertSame(response, first.join());
+        assertSame(response, second.join());
+        assertEquals(1, sent.get());
+        assertEquals(1.0, meterRegistry.get("gateway.singleflight.requests").tag("result", "shared")
+                .counter().count());
+    }
+
+    @Test
+    void executeAfterResponseSendsNewRequestTest() {
+        execute("GET /items/1 1", "/items/1");
+        server.complete(ResponseEntity.ok().build());
+        server = new CompletableFuture<>();
+
+        execute("GET /items/1 1", "/items/1");
+
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    void executeDoesNotShareBetweenKeysTest() {
+        execute("GET /items/1 1", "/items/1");
+        execute("GET /items/1 2", "/items/1");
+
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    void executeSharesFailureTest() {
+        CompletableFuture<ResponseEntity<byte[]>> first = execute("GET /items/1 1", "/items/1");
+        CompletableFuture<ResponseEntity<byte[]>> second = execute("GET /items/1 1", "/items/1");
+
+        server.completeExceptionally(new IllegalStateException());
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0.0, meterRegistry.get("gateway.singleflight.inflight").gauge().value());
+    }
+
+    @Test
+    void forgetStopsSharingForMatchingPathsTest() {
+        CompletableFuture<ResponseEntity<byte[]>> stale = execute("GET /items/1 1", "/items/1");
+        execute("GET /items/2 1", "/items/2");
+
+        singleFlight.forget("/items/1"::equals);
+        CompletableFuture<ResponseEntity<byte[]>> fresh = execute("GET /items/1 1", "/items/1");
+        execute("GET /items/2 1", "/items/2");
+
+        assertEquals(3, sent.get());
+        server.complete(ResponseEntity.ok().build());
+        assertEquals(200, stale.join().getStatusCodeValue());
+        assertEquals(200, fresh.join().getStatusCodeValue());
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> execute(String key, String path) {
+        CompletableFuture<ResponseEntity<byte[]>> response = server;
+        return singleFlight.execute(key, path, () -> {
+            sent.incrementAndGet();
+            return response;
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.exceptions.TooManyRequestsException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitInterceptorTest {
+    UserRateLimiter rateLimiter;
+    RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void beforeEach() {
+        rateLimiter = Mockito.mock(UserRateLimiter.class);
+        interceptor = new RateLimitInterceptor(rateLimiter, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void preHandleKeysOnUserIdTest() {
+        MockHttpServletRequest request = request("10.0.0.5", "10.0.0.6");
+        request.addHeader("X-Sharer-User-Id", "7");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+        verify(rateLimiter).tryAcquire("items", "7");
+    }
+
+    @Test
+    void preHandleTrustsForwardedForFromLoopbackTest() {
+        interceptor.preHandle(request("127.0.0.1", "10.0.0.9, 10.0.0.5"), new MockHttpServletResponse(),
+                new Object());
+        verify(rateLimiter).tryAcquire("items", "addr:10.0.0.5");
+    }
+
+    @Test
+    void preHandleTrustsForwardedForFromGatewayAddressTest() {
+        MockHttpServletRequest request = request("10.0.0.3", "10.0.0.5");
+        request.setLocalAddr("10.0.0.3");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        verify(rateLimiter).tryAcquire("items", "addr:10.0.0.5");
+    }
+
+    @Test
+    void preHandleIgnoresForwardedForFromOtherAddressesTest() {
+        interceptor.preHandle(request("10.0.0.6", "10.0.0.5"), new MockHttpServletResponse(), new Object());
+        verify(rateLimiter).tryAcquire("items", "addr:10.0.0.6");
+    }
+
+    @Test
+    void preHandleRejectsWithRetryAfterTest() {
+        when(rateLimiter.tryAcquire(anyString(), anyString())).thenReturn(1_500_000_000L);
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(request("10.0.0.6", null), new MockHttpServletResponse(), new Object()));
+        assertEquals(2, e.getRetryAfterSeconds());
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setServletPath("/items/1");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRateLimiterTest {
+    SimpleMeterRegistry meterRegistry;
+    RateLimitProperties properties;
+    UserRateLimiter rateLimiter;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RateLimitProperties();
+        properties.setRate(10);
+        properties.setBurst(3);
+        RateLimitProperties.Limit bookings = new RateLimitProperties.Limit();
+        bookings.setRate(1);
+        bookings.setBurst(1);
+        properties.getRoutes().put("bookings", bookings);
+    }
+
+    @AfterEach
+    void afterEach() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void tryAcquireAllowsBurstThenAsksToWaitOneIntervalTest() {
+        rateLimiter = new UserRateLimiter(properties, meterRegistry);
+
+        assertEquals(0, rateLimiter.tryAcquire("items", "1"));
+        assertEquals(0, rateLimiter.tryAcquire("items", "1"));
+        assertEquals(0, rateLimiter.tryAcquire("items", "1"));
+        long wait = rateLimiter.tryAcquire("items", "1");
+
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100), "wait " + wait);
+        assertEquals(0, rateLimiter.tryAcquire("items", "2"));
+    }
+
+    @Test
+    void tryAcquireAllowsNextRequestAfterWaitTest() throws InterruptedException {
+        rateLimiter = new UserRateLimiter(properties, meterRegistry);
+
+        assertEquals(0, rateLimiter.tryAcquire("bookings", "1"));
+        long wait = rateLimiter.tryAcquire("bookings", "1");
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900) && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+        assertEquals(0, rateLimiter.tryAcquire("items", "1"));
+
+        TimeUnit.NANOSECONDS.sleep(wait);
+        assertEquals(0, rateLimiter.tryAcquire("bookings", "1"));
+    }
+
+    @Test
+    void sweepRemovesOnlyFullBucketsTest() throws InterruptedException {
+        properties.setRate(100);
+        properties.setSweepInterval(Duration.ofMillis(200));
+        rateLimiter = new UserRateLimiter(properties, meterRegistry);
+
+        rateLimiter.tryAcquire("items", "1");
+        rateLimiter.tryAcquire("bookings", "1");
+        assertEquals(2.0, buckets());
+
+        for (int i = 0; i < 50 && buckets() > 1; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1.0, buckets());
+        assertTrue(rateLimiter.tryAcquire("bookings", "1") > 0);
+    }
+
+    private double buckets() {
+        return meterRegistry.get("gateway.ratelimit.buckets").gauge().value();
+    }
+}
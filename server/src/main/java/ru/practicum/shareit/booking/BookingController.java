@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -14,6 +16,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class BookingController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
     private final BookingService bookingService;
 
     @PostMapping
@@ -44,26 +48,73 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @RequestParam(defaultValue = "ALL") String state,
-                                                  @RequestParam(defaultValue = "0") int from,
-                                                  @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingResponseDto>> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @RequestParam(defaultValue = "ALL") String state,
+                                                                  @RequestParam(defaultValue = "0") int from,
+                                                                  @RequestParam(defaultValue = "10") int size) {
         log.info("Пришел /GET запрос на получение списка всех бронирований для владельца с id {}, и с параметром {}",
                 userId, state);
         List<BookingResponseDto> bookings = bookingService.getAllByOwner(userId, state, from, size);
         log.info("Ответ отправлен {}", bookings);
-        return bookings;
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping
-    public List<BookingResponseDto> getAllByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state,
-                                                   @RequestParam(defaultValue = "0") int from,
-                                                   @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingResponseDto>> getAllByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") String state,
+                                                                   @RequestParam(defaultValue = "0") int from,
+                                                                   @RequestParam(defaultValue = "10") int size) {
         log.info("Пришел /GET запрос на получение списка всех бронирований для пользователя с id {}, и с параметром {}",
                 userId, state);
         List<BookingResponseDto> bookings = bookingService.getAllByBooker(userId, state, from, size);
         log.info("Ответ отправлен {}", bookings);
-        return bookings;
+        return withNextCursor(bookings, size);
+    }
+
+    @GetMapping(params = {"withTotal=true", "!after"})
+    public ResponseEntity<List<BookingResponseDto>> getAllByBookerWithTotal(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                            @RequestParam(defaultValue = "ALL") String state,
+                                                                            @RequestParam(defaultValue = "0") int from,
+                                                                            @RequestParam(defaultValue = "10") int size) {
+        ResponseEntity<List<BookingResponseDto>> bookings = getAllByBooker(userId, state, from, size);
+        return ResponseEntity.ok()
+                .headers(bookings.getHeaders())
+                .header(TOTAL_COUNT_HEADER, String.valueOf(bookingService.countByBooker(userId, state)))
+                .body(bookings.getBody());
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public ResponseEntity<List<BookingResponseDto>> getAllByOwnerAfter(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                       @RequestParam(defaultValue = "ALL") String state,
+                                                                       @RequestParam String after,
+                                                                       @RequestParam(defaultValue = "10") int size) {
+        log.info("Пришел /GET запрос на получение страницы бронирований для владельца с id {}, с параметром {} " +
+                "после курсора {}", userId, state, after);
+        List<BookingResponseDto> bookings = bookingService.getAllByOwner(userId, state, BookingCursor.decode(after),
+                size);
+        log.info("Ответ отправлен {}", bookings);
+        return withNextCursor(bookings, size);
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<List<BookingResponseDto>> getAllByBookerAfter(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                        @RequestParam(defaultValue = "ALL") String state,
+                                                                        @RequestParam String after,
+                                                                        @RequestParam(defaultValue = "10") int size) {
+        log.info("Пришел /GET запрос на получение страницы бронирований для пользователя с id {}, с параметром {} " +
+                "после курсора {}", userId, state, after);
+        List<BookingResponseDto> bookings = bookingService.getAllByBooker(userId, state, BookingCursor.decode(after),
+                size);
+        log.info("Ответ отправлен {}", bookings);
+        return withNextCursor(bookings, size);
+    }
+
+    private static ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode())
+                .body(bookings);
     }
 }
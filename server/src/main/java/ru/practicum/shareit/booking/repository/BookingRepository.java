@@ -1,42 +1,159 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @Query("select b from Booking b where b.booker.id = ?1 or b.item.owner.id = ?1")
+    List<Booking> findAllByBookerOrOwner(Long userId, Pageable pageable);
+
+    @Query("select distinct b.booker.id from Booking b where b.item.owner.id = ?1")
+    List<Long> findBookerIdsByOwnerId(Long ownerId);
+
+    @Override
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
     List<Booking> findAllByItemOwner(User user, Pageable pageable);
 
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
     List<Booking> findAllByItemOwnerAndStartBeforeAndEndAfter(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
     List<Booking> findAllByItemOwnerAndEndBefore(User user, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
     List<Booking> findAllByItemOwnerAndStartAfter(User user, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
     List<Booking> findAllByItemOwnerAndStatusEquals(User user, Status status, Pageable pageable);
 
-    Page<Booking> findAllByBooker(User user, Pageable pageable);
-
-    Page<Booking> findAllByBookerAndStartBeforeAndEndAfter(User user, LocalDateTime start, LocalDateTime end,
-                                                           Pageable pageable);
-
-    Page<Booking> findAllByBookerAndEndBefore(User user, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByBookerAndStartAfter(User user, LocalDateTime start, Pageable pageable);
-
-    Page<Booking> findAllByBookerAndStatusEquals(User user, Status status, Pageable pageable);
-
-    List<Booking> findAllByItemIdAndItemOwnerIdAndStartBeforeOrderByEndDesc(Long itemId, Long userId, LocalDateTime now);
-
-    List<Booking> findAllByItemIdAndEndBeforeOrderByStartAsc(Long itemId, LocalDateTime now);
-
-    List<Booking> findAllByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    Slice<Booking> findAllByBooker(User user, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    Slice<Booking> findAllByBookerAndStartBeforeAndEndAfter(User user, LocalDateTime start, LocalDateTime end,
+                                                            Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    Slice<Booking> findAllByBookerAndEndBefore(User user, LocalDateTime end, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    Slice<Booking> findAllByBookerAndStartAfter(User user, LocalDateTime start, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    Slice<Booking> findAllByBookerAndStatusEquals(User user, Status status, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.item.owner.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByOwnerAfter(Long ownerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.item.owner.id = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllCurrentByOwnerAfter(Long ownerId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId,
+                                             Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.item.owner.id = ?1 and b.end < ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllPastByOwnerAfter(Long ownerId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId,
+                                          Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.item.owner.id = ?1 and b.start > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllFutureByOwnerAfter(Long ownerId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId,
+                                            Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.item.owner.id = ?1 and b.status = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByOwnerAndStatusAfter(Long ownerId, Status status, LocalDateTime cursorStart, Long cursorId,
+                                               Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.booker.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByBookerAfter(Long bookerId, LocalDateTime cursorStart, Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.booker.id = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllCurrentByBookerAfter(Long bookerId, LocalDateTime now, LocalDateTime cursorStart,
+                                              Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.booker.id = ?1 and b.end < ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllPastByBookerAfter(Long bookerId, LocalDateTime now, LocalDateTime cursorStart, Long cursorId,
+                                           Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.booker.id = ?1 and b.start > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllFutureByBookerAfter(Long bookerId, LocalDateTime now, LocalDateTime cursorStart,
+                                             Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.ITEM_AND_BOOKER)
+    @Query("select b from Booking b where b.booker.id = ?1 and b.status = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllByBookerAndStatusAfter(Long bookerId, Status status, LocalDateTime cursorStart,
+                                                Long cursorId, Pageable pageable);
+
+    @Query("select b.status, count(b) from Booking b where b.booker.id = ?1 group by b.status")
+    List<Object[]> countByBookerIdGroupByStatus(Long bookerId);
+
+    long countByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end);
+
+    long countByBookerIdAndEndBefore(Long bookerId, LocalDateTime end);
+
+    long countByBookerIdAndStartAfter(Long bookerId, LocalDateTime start);
+
+    Optional<Booking> findFirstByItemIdAndStartBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
+
+    Optional<Booking> findFirstByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<Status> statuses, LocalDateTime end);
 
     List<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Long userId, Long itemId, Status status, LocalDateTime end);
+
+    /**
+     * Для каждой вещи из списка возвращает не более двух бронирований: первое завершившееся до now
+     * и первое начинающееся после now. Отличить их можно по датам относительно now.
+     */
+    @Query(value = "select lb.id, lb.start_date, lb.end_date, lb.item_id, lb.booker_id, lb.status from (" +
+            "select b.*, row_number() over (partition by b.item_id order by b.start_date asc) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.end_date < :now) lb where lb.rn = 1 " +
+            "union all " +
+            "select nb.id, nb.start_date, nb.end_date, nb.item_id, nb.booker_id, nb.status from (" +
+            "select b.*, row_number() over (partition by b.item_id order by b.start_date asc) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.start_date > :now) nb where nb.rn = 1",
+            nativeQuery = true)
+    List<Booking> findLastAndNextByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now);
 }
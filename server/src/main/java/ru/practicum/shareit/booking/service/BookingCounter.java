@@ -0,0 +1,160 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш количества бронирований пользователя по статусам. Значения загружаются из базы
+ * при первом обращении и дальше поддерживаются инкрементально после коммита создания и подтверждения бронирований.
+ * Размер ограничен, при переполнении вытесняется давно не запрашивавшаяся запись.
+ */
+@Component
+public class BookingCounter {
+    private final BookingRepository bookingRepository;
+    private final int maxSize;
+    private final Map<Long, Counters> counters;
+    private long generation;
+
+    public BookingCounter(BookingRepository bookingRepository,
+                          @Value("${shareit.bookings.counter.max-size:10000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.maxSize = maxSize;
+        this.counters = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Counters> eldest) {
+                return size() > BookingCounter.this.maxSize;
+            }
+        };
+    }
+
+    public long countByBooker(Long bookerId) {
+        return Arrays.stream(getCounters(bookerId).counts).sum();
+    }
+
+    public long countByBooker(Long bookerId, Status status) {
+        return getCounters(bookerId).counts[status.ordinal()];
+    }
+
+    public void onCreated(Long bookerId, Status status) {
+        change(bookerId, null, status);
+    }
+
+    public void onStatusChanged(Long bookerId, Status from, Status to) {
+        if (from != to) {
+            change(bookerId, from, to);
+        }
+    }
+
+    /**
+     * Удаляет счетчики сразу и еще раз после коммита текущей транзакции,
+     * чтобы не осталось значений, прочитанных до коммита.
+     */
+    public void evict(Long bookerId) {
+        remove(bookerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> remove(bookerId));
+        }
+    }
+
+    public int size() {
+        synchronized (counters) {
+            return counters.size();
+        }
+    }
+
+    private Counters getCounters(Long bookerId) {
+        long loadGeneration;
+        synchronized (counters) {
+            Counters bookerCounters = counters.get(bookerId);
+            if (bookerCounters != null) {
+                return bookerCounters.copy();
+            }
+            loadGeneration = generation;
+        }
+        Counters bookerCounters = load(bookerId, loadGeneration);
+        synchronized (counters) {
+            if (loadGeneration == generation) {
+                counters.put(bookerId, bookerCounters.copy());
+            }
+        }
+        return bookerCounters;
+    }
+
+    /**
+     * Изменение применяется только после коммита. Счетчики, загруженные после начала изменения, могли уже
+     * увидеть закоммиченную строку, поэтому вместо инкремента они удаляются и перечитываются при следующем запросе.
+     */
+    private void change(Long bookerId, Status from, Status to) {
+        long changeGeneration;
+        synchronized (counters) {
+            changeGeneration = ++generation;
+        }
+        afterCommit(() -> {
+            synchronized (counters) {
+                generation++;
+                Counters bookerCounters = counters.get(bookerId);
+                if (bookerCounters == null) {
+                    return;
+                }
+                if (bookerCounters.generation >= changeGeneration) {
+                    counters.remove(bookerId);
+                    return;
+                }
+                if (from != null) {
+                    bookerCounters.counts[from.ordinal()]--;
+                }
+                bookerCounters.counts[to.ordinal()]++;
+            }
+        });
+    }
+
+    private void remove(Long bookerId) {
+        synchronized (counters) {
+            generation++;
+            counters.remove(bookerId);
+        }
+    }
+
+    private Counters load(Long bookerId, long loadGeneration) {
+        Counters bookerCounters = new Counters(new long[Status.values().length], loadGeneration);
+        for (Object[] row : bookingRepository.countByBookerIdGroupByStatus(bookerId)) {
+            bookerCounters.counts[((Status) row[0]).ordinal()] = ((Number) row[1]).longValue();
+        }
+        return bookerCounters;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Counters {
+        private final long[] counts;
+        private final long generation;
+
+        private Counters(long[] counts, long generation) {
+            this.counts = counts;
+            this.generation = generation;
+        }
+
+        private Counters copy() {
+            return new Counters(counts.clone(), generation);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Индекс занятых интервалов по каждой вещи: ожидающие и подтвержденные бронирования,
+ * которые еще не закончились. Интервалы хранятся как отсортированные непересекающиеся отрезки,
+ * поэтому проверка пересечения стоит O(log n). Индекс вещи загружается из базы при первом обращении,
+ * а все операции над ним выполняются под блокировкой этой вещи. Новый интервал занимается сразу, чтобы
+ * параллельное бронирование его не пересекло, и освобождается при откате; освобождение интервала
+ * отклоненного или удаленного бронирования применяется после коммита. Число индексов ограничено,
+ * при переполнении вытесняются давно не использовавшиеся индексы без незакоммиченных интервалов.
+ */
+@Component
+public class BookingIntervalIndex {
+    private static final int STRIPES = 64;
+    private static final List<Status> BLOCKING_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final int maxSize;
+    private final Map<Long, Schedule> schedules = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock[] locks = createLocks();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.bookings.interval-index.max-size:10000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.maxSize = maxSize;
+    }
+
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = lock(itemId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Segment> schedule = getSchedule(itemId).segments;
+        Map.Entry<LocalDateTime, Segment> before = schedule.floorEntry(start);
+        if (before != null && before.getValue().end.isAfter(start)) {
+            return true;
+        }
+        Map.Entry<LocalDateTime, Segment> after = schedule.higherEntry(start);
+        return after != null && after.getKey().isBefore(end);
+    }
+
+    public void add(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Interval interval = new Interval(booking.getId(), booking.getStart(), booking.getEnd());
+        Schedule schedule = getSchedule(itemId);
+        insert(schedule.segments, interval);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule.pending++;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    withItemLock(itemId, () -> {
+                        schedule.pending--;
+                        return status != STATUS_COMMITTED && remove(itemId, interval.bookingId);
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Освобождает интервал бронирования после коммита текущей транзакции: до коммита он должен
+     * оставаться занятым, а при откате транзакции бронирование остается в силе.
+     */
+    public void remove(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        afterCommit(() -> withItemLock(itemId, () -> remove(itemId, bookingId)));
+    }
+
+    public int size() {
+        synchronized (schedules) {
+            return schedules.size();
+        }
+    }
+
+    private boolean remove(Long itemId, Long bookingId) {
+        Schedule schedule;
+        synchronized (schedules) {
+            schedule = schedules.get(itemId);
+        }
+        if (schedule == null) {
+            return false;
+        }
+        Iterator<Segment> segments = schedule.segments.values().iterator();
+        while (segments.hasNext()) {
+            Segment segment = segments.next();
+            if (segment.intervals.removeIf(interval -> interval.bookingId.equals(bookingId))) {
+                segments.remove();
+                segment.intervals.forEach(interval -> insert(schedule.segments, interval));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Schedule getSchedule(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        Schedule schedule;
+        synchronized (schedules) {
+            schedule = schedules.get(itemId);
+        }
+        if (schedule == null) {
+            schedule = new Schedule(load(itemId, now));
+            synchronized (schedules) {
+                schedules.put(itemId, schedule);
+                shrink(itemId);
+            }
+        }
+        Iterator<Segment> segments = schedule.segments.values().iterator();
+        while (segments.hasNext() && segments.next().end.isBefore(now)) {
+            segments.remove();
+        }
+        return schedule;
+    }
+
+    /**
+     * Вытесняет давно не использовавшиеся индексы. Индекс с незакоммиченными интервалами не трогается, иначе
+     * после перезагрузки из базы параллельная транзакция не увидела бы занятый интервал. Индекс другой вещи
+     * удаляется только под ее блокировкой; если она занята, индекс остается до следующей загрузки.
+     */
+    private void shrink(Long itemId) {
+        Iterator<Map.Entry<Long, Schedule>> entries = schedules.entrySet().iterator();
+        while (schedules.size() > maxSize && entries.hasNext()) {
+            Map.Entry<Long, Schedule> entry = entries.next();
+            if (entry.getKey().equals(itemId) || entry.getValue().pending > 0) {
+                continue;
+            }
+            ReentrantLock lock = lock(entry.getKey());
+            if (lock.tryLock()) {
+                try {
+                    if (entry.getValue().pending == 0) {
+                        entries.remove();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private ReentrantLock lock(Long itemId) {
+        return locks[Math.floorMod(itemId.hashCode(), STRIPES)];
+    }
+
+    private NavigableMap<LocalDateTime, Segment> load(Long itemId, LocalDateTime now) {
+        NavigableMap<LocalDateTime, Segment> schedule = new TreeMap<>();
+        for (Booking booking : bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId, BLOCKING_STATUSES, now)) {
+            insert(schedule, new Interval(booking.getId(), booking.getStart(), booking.getEnd()));
+        }
+        return schedule;
+    }
+
+    private static void insert(NavigableMap<LocalDateTime, Segment> schedule, Interval interval) {
+        Segment merged = new Segment(interval.start, interval.end);
+        merged.intervals.add(interval);
+        Map.Entry<LocalDateTime, Segment> before = schedule.floorEntry(interval.start);
+        if (before != null && before.getValue().end.isAfter(interval.start)) {
+            merged.merge(schedule.remove(before.getKey()));
+        }
+        Map.Entry<LocalDateTime, Segment> after = schedule.ceilingEntry(merged.start);
+        while (after != null && after.getKey().isBefore(merged.end)) {
+            merged.merge(schedule.remove(after.getKey()));
+            after = schedule.ceilingEntry(merged.start);
+        }
+        schedule.put(merged.start, merged);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private static class Schedule {
+        private final NavigableMap<LocalDateTime, Segment> segments;
+        private int pending;
+
+        private Schedule(NavigableMap<LocalDateTime, Segment> segments) {
+            this.segments = segments;
+        }
+    }
+
+    private static class Interval {
+        private final Long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static class Segment {
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private final List<Interval> intervals = new ArrayList<>(1);
+
+        private Segment(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        private void merge(Segment other) {
+            if (other.start.isBefore(start)) {
+                start = other.start;
+            }
+            if (other.end.isAfter(end)) {
+                end = other.end;
+            }
+            intervals.addAll(other.intervals);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
@@ -15,4 +16,10 @@ public interface BookingService {
     List<BookingResponseDto> getAllByOwner(Long userId, String state, int from, int size);
 
     List<BookingResponseDto> getAllByBooker(Long userId, String state, int from, int size);
+
+    List<BookingResponseDto> getAllByOwner(Long userId, String state, BookingCursor after, int size);
+
+    List<BookingResponseDto> getAllByBooker(Long userId, String state, BookingCursor after, int size);
+
+    long countByBooker(Long userId, String state);
 }
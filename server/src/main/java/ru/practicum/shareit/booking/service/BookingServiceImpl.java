@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -35,7 +36,9 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
-    private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
+    private final BookingCounter bookingCounter;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
 
     @Transactional
     @Override
@@ -57,10 +60,20 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingIsNotAvailableException("Дата окончания бронирования не может быть больше даты начала или равна 0");
         }
         booking.setStatus(Status.WAITING);
-        Booking responseBooking = bookingRepository.save(booking);
+        Booking responseBooking = bookingIntervalIndex.withItemLock(item.getId(), () -> {
+            if (bookingIntervalIndex.overlaps(item.getId(), booking.getStart(), booking.getEnd())) {
+                log.error("Вещь уже забронирована на указанное время");
+                throw new BookingIsNotAvailableException("Вещь уже забронирована на указанное время");
+            }
+            Booking savedBooking = bookingRepository.save(booking);
+            bookingIntervalIndex.add(savedBooking);
+            return savedBooking;
+        });
+        bookingCounter.onCreated(userId, Status.WAITING);
         return toBookingResponseDto(responseBooking);
     }
 
+    @Transactional
     @Override
     public BookingResponseDto approve(Long bookingId, Long ownerId, Boolean approve) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
@@ -77,8 +90,10 @@ public class BookingServiceImpl implements BookingService {
             booking.setStatus(Status.APPROVED);
         } else {
             booking.setStatus(Status.REJECTED);
+            bookingIntervalIndex.remove(booking);
         }
         Booking responseBooking = bookingRepository.save(booking);
+        bookingCounter.onStatusChanged(booking.getBooker().getId(), Status.WAITING, booking.getStatus());
         return toBookingResponseDto(responseBooking);
     }
 
@@ -170,4 +185,107 @@ public class BookingServiceImpl implements BookingService {
         }
         return toBookingResponseDto(bookings);
     }
+
+    @Override
+    public List<BookingResponseDto> getAllByOwner(Long userId, String state, BookingCursor after, int size) {
+        if (after == null) {
+            return getAllByOwner(userId, state, 0, size);
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Размер страницы должен быть больше нуля");
+        }
+        final Pageable pageable = PageRequest.of(0, size);
+        final LocalDateTime now = LocalDateTime.now();
+        User user = toUser(userService.getById(userId));
+        List<Booking> bookings = new ArrayList<>();
+        switch (state) {
+            case "ALL":
+                bookings.addAll(bookingRepository.findAllByOwnerAfter(user.getId(), after.getStart(), after.getId(),
+                        pageable));
+                break;
+            case "CURRENT":
+                bookings.addAll(bookingRepository.findAllCurrentByOwnerAfter(user.getId(), now, after.getStart(),
+                        after.getId(), pageable));
+                break;
+            case "PAST":
+                bookings.addAll(bookingRepository.findAllPastByOwnerAfter(user.getId(), now, after.getStart(),
+                        after.getId(), pageable));
+                break;
+            case "FUTURE":
+                bookings.addAll(bookingRepository.findAllFutureByOwnerAfter(user.getId(), now, after.getStart(),
+                        after.getId(), pageable));
+                break;
+            case "WAITING":
+                bookings.addAll(bookingRepository.findAllByOwnerAndStatusAfter(user.getId(), Status.WAITING,
+                        after.getStart(), after.getId(), pageable));
+                break;
+            case "REJECTED":
+                bookings.addAll(bookingRepository.findAllByOwnerAndStatusAfter(user.getId(), Status.REJECTED,
+                        after.getStart(), after.getId(), pageable));
+                break;
+        }
+        return toBookingResponseDto(bookings);
+    }
+
+    @Override
+    public List<BookingResponseDto> getAllByBooker(Long userId, String state, BookingCursor after, int size) {
+        if (after == null) {
+            return getAllByBooker(userId, state, 0, size);
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Размер страницы должен быть больше нуля");
+        }
+        final Pageable pageable = PageRequest.of(0, size);
+        final LocalDateTime now = LocalDateTime.now();
+        User user = toUser(userService.getById(userId));
+        List<Booking> bookings = new ArrayList<>();
+        switch (state) {
+            case "ALL":
+                bookings.addAll(bookingRepository.findAllByBookerAfter(user.getId(), after.getStart(), after.getId(),
+                        pageable));
+                break;
+            case "CURRENT":
+                bookings.addAll(bookingRepository.findAllCurrentByBookerAfter(user.getId(), now, after.getStart(),
+                        after.getId(), pageable));
+                break;
+            case "PAST":
+                bookings.addAll(bookingRepository.findAllPastByBookerAfter(user.getId(), now, after.getStart(),
+                        after.getId(), pageable));
+                break;
+            case "FUTURE":
+                bookings.addAll(bookingRepository.findAllFutureByBookerAfter(user.getId(), now, after.getStart(),
+                        after.getId(), pageable));
+                break;
+            case "WAITING":
+                bookings.addAll(bookingRepository.findAllByBookerAndStatusAfter(user.getId(), Status.WAITING,
+                        after.getStart(), after.getId(), pageable));
+                break;
+            case "REJECTED":
+                bookings.addAll(bookingRepository.findAllByBookerAndStatusAfter(user.getId(), Status.REJECTED,
+                        after.getStart(), after.getId(), pageable));
+                break;
+        }
+        return toBookingResponseDto(bookings);
+    }
+
+    @Override
+    public long countByBooker(Long userId, String state) {
+        final LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case "ALL":
+                return bookingCounter.countByBooker(userId);
+            case "CURRENT":
+                return bookingRepository.countByBookerIdAndStartBeforeAndEndAfter(userId, now, now);
+            case "PAST":
+                return bookingRepository.countByBookerIdAndEndBefore(userId, now);
+            case "FUTURE":
+                return bookingRepository.countByBookerIdAndStartAfter(userId, now);
+            case "WAITING":
+                return bookingCounter.countByBooker(userId, Status.WAITING);
+            case "REJECTED":
+                return bookingCounter.countByBooker(userId, Status.REJECTED);
+            default:
+                return 0;
+        }
+    }
 }
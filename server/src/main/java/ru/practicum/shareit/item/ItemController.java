@@ -2,11 +2,14 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,6 +17,7 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class ItemController {
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
     private final ItemService service;
 
     @GetMapping
@@ -26,6 +30,16 @@ public class ItemController {
         return items;
     }
 
+    @GetMapping(params = "withTotal=true")
+    public ResponseEntity<List<ItemDto>> findAllWithTotal(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @RequestParam(defaultValue = "0") int from,
+                                                          @RequestParam(defaultValue = "10") int size) {
+        List<ItemDto> items = findAll(userId, from, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(service.countByOwner(userId)))
+                .body(items);
+    }
+
     @GetMapping("/{id}")
     public ItemDto findById(@PathVariable Long id, @RequestHeader("X-Sharer-User-Id") Long ownerId) {
         log.info("Пришел /GET запрос на получение объекта с id {}", id);
@@ -61,6 +75,20 @@ public class ItemController {
         return items;
     }
 
+    @GetMapping(value = "/search", params = {"start", "end"})
+    public List<ItemDto> searchAvailableBetween(@RequestParam String text,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                LocalDateTime start,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                LocalDateTime end,
+                                                @RequestParam(defaultValue = "0") int from,
+                                                @RequestParam(defaultValue = "10") int size) {
+        log.info("Пришел /GET запрос на поиск объекта {}, свободного с {} по {}", text, start, end);
+        List<ItemDto> items = service.search(text, start, end, from, size);
+        log.info("Ответ отправлен {}", items);
+        return items;
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
                                  @RequestBody CommentDto commentDto) {
@@ -13,18 +13,21 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = Comment.AUTHOR, attributeNodes = @NamedAttributeNode("author"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class Comment {
+    public static final String AUTHOR = "Comment.author";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @Column(length = 1000, nullable = false)
     private String text;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", referencedColumnName = "id", nullable = false)
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", referencedColumnName = "id", nullable = false)
     private User author;
     @Column
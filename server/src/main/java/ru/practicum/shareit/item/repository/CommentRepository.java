@@ -1,10 +1,21 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(Comment.AUTHOR)
     List<Comment> findAllByItemId(Long itemId);
+
+    @EntityGraph(Comment.AUTHOR)
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select c.id from Comment c where c.author.id = ?1 or c.item.owner.id = ?1")
+    List<Long> findIdsByAuthorOrOwner(Long userId, Pageable pageable);
 }
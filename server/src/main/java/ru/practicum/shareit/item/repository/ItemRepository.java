@@ -1,21 +1,66 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    Page<Item> findAllByOwnerIdOrderByIdAsc(Long userId, Pageable pageable);
+    Slice<Item> findAllByOwnerIdOrderByIdAsc(Long userId, Pageable pageable);
+
+    long countByOwnerId(Long userId);
+
+    @Query("select i.id from Item i where i.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long userId, Pageable pageable);
+
+    @Query("select i.id from Item i where i.request.requester.id = ?1")
+    List<Long> findIdsAnsweringRequesterId(Long requesterId, Pageable pageable);
+
+    /**
+     * Отвязывает вещи-ответы от запросов, иначе удаление запроса каскадом удалит чужие вещи (см. schema.sql).
+     */
+    @Modifying
+    @Query("update Item i set i.request = null where i.id in ?1")
+    void clearRequestByIdIn(Collection<Long> ids);
 
     List<Item> findAllByRequestId(Long itemId);
 
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i from Item i")
+    Stream<Item> streamAll();
+
     @Query(" select i from Item i " +
             "where i.available = true and upper(i.name) like upper(concat('%', ?1, '%')) " +
             "or  i.available = true and upper(i.description) like upper(concat('%', ?1, '%')) " +
-            "order by i.id asc ")
-    Page<Item> search(String text, Pageable pageable);
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id asc ")
+    Slice<Item> searchRanked(String text, Pageable pageable);
+
+    /**
+     * Полнотекстовый поиск только для Postgres: query - выражение to_tsquery, например "дрель:* & ударная:*".
+     */
+    @Query(value = "select i.* from items i, " +
+            "to_tsquery('russian', :query) || to_tsquery('english', :query) q " +
+            "where i.is_available = true and i.search_vector @@ q " +
+            "order by ts_rank(i.search_vector, q) desc, i.id asc", nativeQuery = true)
+    Slice<Item> fullTextSearch(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Оставляет из кандидатов поиска вещи без подтвержденных бронирований, пересекающих интервал [start, end).
+     */
+    @Query("select i.id from Item i where i.id in ?1 " +
+            "and not exists (select b.id from Booking b where b.item = i " +
+            "and b.status = ru.practicum.shareit.booking.model.Status.APPROVED and b.start < ?3 and b.end > ?2)")
+    List<Long> findIdsFreeBetween(Collection<Long> ids, LocalDateTime start, LocalDateTime end);
 }
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Полнотекстовый поиск Postgres по колонке ITEMS.SEARCH_VECTOR с GIN индексом (см. schema-postgresql.sql).
+ * Каждое слово запроса ищется как префикс, результаты упорядочены по ts_rank.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "fulltext", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+    private static final int PREFIX_LENGTH = 2;
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public Slice<Item> search(String text, Pageable pageable) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+        return itemRepository.fullTextSearch(query, pageable);
+    }
+
+    /**
+     * Postgres сравнивает основы слов, которые в Java не повторить. Основа начинается так же, как слово,
+     * поэтому вещь может подойти, только если для каждого слова запроса в ее тексте есть слово,
+     * начинающееся с первых PREFIX_LENGTH символов слова запроса. Проверка дает лишние совпадения,
+     * но не пропускает нужные.
+     */
+    @Override
+    public boolean matches(String text, String name, String description) {
+        List<String> itemWords = words(name + " " + description).collect(Collectors.toList());
+        return words(text).allMatch(word -> {
+            String prefix = word.substring(0, Math.min(PREFIX_LENGTH, word.length()));
+            return itemWords.stream().anyMatch(itemWord -> itemWord.startsWith(prefix));
+        });
+    }
+
+    static String toTsQuery(String text) {
+        return words(text)
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private static Stream<String> words(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty());
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш количества вещей владельца. Значение загружается из базы при первом обращении
+ * и дальше увеличивается после коммита создания вещей, так же как в BookingCounter.
+ * Размер ограничен, при переполнении вытесняется давно не запрашивавшаяся запись.
+ */
+@Component
+public class ItemCounter {
+    private final ItemRepository itemRepository;
+    private final int maxSize;
+    private final Map<Long, Counter> counters;
+    private long generation;
+
+    public ItemCounter(ItemRepository itemRepository,
+                       @Value("${shareit.items.counter.max-size:10000}") int maxSize) {
+        this.itemRepository = itemRepository;
+        this.maxSize = maxSize;
+        this.counters = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Counter> eldest) {
+                return size() > ItemCounter.this.maxSize;
+            }
+        };
+    }
+
+    public long countByOwner(Long ownerId) {
+        long loadGeneration;
+        synchronized (counters) {
+            Counter counter = counters.get(ownerId);
+            if (counter != null) {
+                return counter.count;
+            }
+            loadGeneration = generation;
+        }
+        long count = itemRepository.countByOwnerId(ownerId);
+        synchronized (counters) {
+            if (loadGeneration == generation) {
+                counters.put(ownerId, new Counter(count, loadGeneration));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Счетчик увеличивается только после коммита. Значение, загруженное после начала создания, могло уже
+     * увидеть новую вещь, поэтому вместо инкремента оно удаляется и перечитывается при следующем запросе.
+     */
+    public void onCreated(Long ownerId) {
+        long changeGeneration;
+        synchronized (counters) {
+            changeGeneration = ++generation;
+        }
+        afterCommit(() -> {
+            synchronized (counters) {
+                generation++;
+                Counter counter = counters.get(ownerId);
+                if (counter == null) {
+                    return;
+                }
+                if (counter.generation >= changeGeneration) {
+                    counters.remove(ownerId);
+                    return;
+                }
+                counter.count++;
+            }
+        });
+    }
+
+    /**
+     * Удаляет счетчик сразу и еще раз после коммита текущей транзакции,
+     * чтобы не осталось значений, прочитанных до коммита.
+     */
+    public void evict(Long ownerId) {
+        remove(ownerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> remove(ownerId));
+        }
+    }
+
+    public int size() {
+        synchronized (counters) {
+            return counters.size();
+        }
+    }
+
+    private void remove(Long ownerId) {
+        synchronized (counters) {
+            generation++;
+            counters.remove(ownerId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Counter {
+        private long count;
+        private final long generation;
+
+        private Counter(long count, long generation) {
+            this.count = count;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов поиска вещей по ключу (текст в нижнем регистре, from, size).
+ * Размер ограничен, при переполнении вытесняется давно не запрашивавшаяся запись; записи живут не дольше ttl.
+ * Результат поиска, начатого до инвалидации, в кэш не попадает.
+ * Метрики cache.gets, cache.evictions и cache.size с тегом cache=itemSearch доступны через /actuator/metrics.
+ */
+@Component
+public class ItemSearchCache {
+    private static final String CACHE_NAME = "itemSearch";
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long generation;
+
+    public ItemSearchCache(@Value("${shareit.search.cache.max-size:1000}") int maxSize,
+                           @Value("${shareit.search.cache.ttl:60s}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ItemSearchCache.this.maxSize) {
+                    ItemSearchCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ItemSearchCache::size).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public List<ItemDto> get(String text, int from, int size, Supplier<List<ItemDto>> loader) {
+        Key key = new Key(text, from, size);
+        long now = System.nanoTime();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.created < ttlNanos) {
+                hits.increment();
+                return entry.items;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        List<ItemDto> items = List.copyOf(loader.get());
+        synchronized (entries) {
+            if (loadGeneration == generation) {
+                entries.put(key, new Entry(items, now));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Удаляет записи, чей текст поиска подходит под условие. При активной транзакции записи удаляются
+     * еще раз после коммита, чтобы не осталось результатов, закэшированных до него.
+     */
+    public void invalidate(Predicate<String> affectedText) {
+        evict(affectedText);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(affectedText);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(Predicate<String> affectedText) {
+        synchronized (entries) {
+            generation++;
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (affectedText.test(keys.next().text)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final String text;
+        private final int from;
+        private final int size;
+
+        private Key(String text, int from, int size) {
+            this.text = text;
+            this.from = from;
+            this.size = size;
+        }
+    }
+
+    private static class Entry {
+        private final List<ItemDto> items;
+        private final long created;
+
+        private Entry(List<ItemDto> items, long created) {
+            this.items = items;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collection;
+
+/**
+ * Поиск доступных вещей по тексту в названии и описании.
+ * Реализация выбирается свойством shareit.search.engine.
+ */
+public interface ItemSearchEngine {
+    Slice<Item> search(String text, Pageable pageable);
+
+    /**
+     * Вызывается после сохранения новой или измененной вещи.
+     */
+    default void onSaved(Item item) {
+    }
+
+    /**
+     * Вызывается при удалении вещей, например при очистке данных удаленного пользователя.
+     */
+    default void onDeleted(Collection<Long> itemIds) {
+    }
+
+    /**
+     * Может ли доступная вещь с такими названием и описанием попасть в результаты поиска по тексту.
+     * Используется для точечной инвалидации кэша поиска.
+     */
+    default boolean matches(String text, String name, String description) {
+        return name.toLowerCase().contains(text) || description.toLowerCase().contains(text);
+    }
+}
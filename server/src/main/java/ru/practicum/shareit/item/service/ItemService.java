@@ -3,11 +3,14 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     List<ItemDto> findAll(Long userId, int from, int size);
 
+    long countByOwner(Long userId);
+
     ItemDto findById(Long id, Long ownerId);
 
     ItemDto create(ItemDto itemDto, Long userId);
@@ -16,5 +19,7 @@ public interface ItemService {
 
     List<ItemDto> search(String text,  int from, int size);
 
+    List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
     CommentDto addComment(Long itemId, Long userId, CommentDto commentDto);
 }
@@ -4,8 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
@@ -21,6 +24,8 @@ import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.service.ItemRequestFeed;
+import ru.practicum.shareit.itemRequest.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
@@ -28,7 +33,11 @@ import ru.practicum.shareit.user.service.UserService;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingShortDto;
@@ -42,11 +51,21 @@ import static ru.practicum.shareit.user.mapper.UserMapper.toUser;
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    /**
+     * Сколько кандидатов поиска за раз проверяется на занятость в интервале.
+     */
+    private static final int SEARCH_BATCH_SIZE = 100;
+
     private final ItemRepository repository;
     private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemCounter itemCounter;
+    private final ItemSearchEngine searchEngine;
+    private final ItemSearchCache searchCache;
+    private final ItemRequestFeed itemRequestFeed;
+    private final ItemRequestMatcher itemRequestMatcher;
 
     @Override
     public List<ItemDto> findAll(Long userId, int from, int size) {
@@ -59,26 +78,43 @@ public class ItemServiceImpl implements ItemService {
                 size
         );
         List<Item> items = repository.findAllByOwnerIdOrderByIdAsc(userId, pageable).toList();
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findLastAndNextByItemIds(itemIds, now)) {
+            if (booking.getEnd().isBefore(now)) {
+                lastBookings.put(booking.getItem().getId(), booking);
+            } else {
+                nextBookings.put(booking.getItem().getId(), booking);
+            }
+        }
         List<ItemDto> itemDtos = new ArrayList<>();
         for (Item item : items) {
             ItemDto itemDto = toItemDto(item);
-            itemDto.setComments(commentRepository.findAllByItemId(itemDto.getId()).stream().map(CommentMapper::toCommentDto)
-                    .collect(Collectors.toList()));
-            itemDto.setLastBooking(bookingRepository.findAllByItemIdAndEndBeforeOrderByStartAsc(itemDto.getId(),
-                    LocalDateTime.now()).isEmpty() ? null :
-                    toBookingShortDto(bookingRepository.findAllByItemIdAndEndBeforeOrderByStartAsc(itemDto.getId(),
-                            LocalDateTime.now()).get(0)));
-            if (itemDto.getLastBooking() != null) {
-                itemDto.setNextBooking(bookingRepository.findAllByItemIdAndStartAfterOrderByStartAsc(itemDto.getId(),
-                        LocalDateTime.now()).isEmpty() ? null :
-                        toBookingShortDto(bookingRepository.findAllByItemIdAndStartAfterOrderByStartAsc(itemDto.getId(),
-                                LocalDateTime.now()).get(0)));
+            itemDto.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
+            Booking lastBooking = lastBookings.get(item.getId());
+            if (lastBooking != null) {
+                itemDto.setLastBooking(toBookingShortDto(lastBooking));
+                Booking nextBooking = nextBookings.get(item.getId());
+                itemDto.setNextBooking(nextBooking == null ? null : toBookingShortDto(nextBooking));
             }
             itemDtos.add(itemDto);
         }
         return itemDtos;
     }
 
+    @Override
+    public long countByOwner(Long userId) {
+        return itemCounter.countByOwner(userId);
+    }
+
     @Override
     public ItemDto findById(Long id, Long ownerId) {
         final LocalDateTime now = LocalDateTime.now();
@@ -88,14 +124,13 @@ public class ItemServiceImpl implements ItemService {
         itemDto.setComments(commentRepository.findAllByItemId(id).stream().map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList()));
         if (ownerId.equals(item.getOwner().getId())) {
-            itemDto.setLastBooking(bookingRepository.findAllByItemIdAndItemOwnerIdAndStartBeforeOrderByEndDesc(id,
-                    ownerId, now).isEmpty() ? null :
-                    toBookingShortDto(bookingRepository.findAllByItemIdAndItemOwnerIdAndStartBeforeOrderByEndDesc(id,
-                            ownerId, now).get(0)));
+            itemDto.setLastBooking(bookingRepository.findFirstByItemIdAndStartBeforeOrderByEndDesc(id, now)
+                    .map(BookingMapper::toBookingShortDto)
+                    .orElse(null));
             if (itemDto.getLastBooking() != null) {
-                itemDto.setNextBooking(bookingRepository.findAllByItemIdAndStartAfterOrderByStartAsc(itemDto.getId(),
-                        LocalDateTime.now()).isEmpty() ? null :
-                        toBookingShortDto(bookingRepository.findAllByItemIdAndStartAfterOrderByStartAsc(id, now).get(0)));
+                itemDto.setNextBooking(bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(id, now)
+                        .map(BookingMapper::toBookingShortDto)
+                        .orElse(null));
             }
         }
         return itemDto;
@@ -113,6 +148,15 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequest);
         }
         repository.save(item);
+        itemCounter.onCreated(userId);
+        searchEngine.onSaved(item);
+        if (item.getRequest() != null) {
+            itemRequestFeed.onItemSaved(item.getRequest().getId(), ItemMapper.toItemShortDto(item));
+        }
+        itemRequestMatcher.onItemSaved(item, userId);
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            searchCache.invalidate(text -> searchEngine.matches(text, item.getName(), item.getDescription()));
+        }
         return toItemDto(item);
     }
 
@@ -122,9 +166,12 @@ public class ItemServiceImpl implements ItemService {
         UserDto user = userService.getById(userId);
         Item item = repository.findById(itemId).orElseThrow(
                 () -> new DataNotFoundException(String.format("Предмет с id %d не найден", itemId)));
-        if (!item.getOwner().equals(toUser(user))) {
+        if (item.getOwner().getId() != user.getId()) {
             throw new DataNotFoundException(String.format("Этот предмет не принадлежит пользователю с id %d", userId));
         }
+        String oldName = item.getName();
+        String oldDescription = item.getDescription();
+        boolean wasAvailable = Boolean.TRUE.equals(item.getAvailable());
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -134,7 +181,14 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return toItemDto(repository.save(item));
+        Item savedItem = repository.save(item);
+        searchEngine.onSaved(savedItem);
+        if (savedItem.getRequest() != null) {
+            itemRequestFeed.onItemSaved(savedItem.getRequest().getId(), ItemMapper.toItemShortDto(savedItem));
+        }
+        itemRequestMatcher.onItemSaved(savedItem, userId);
+        invalidateSearch(oldName, oldDescription, wasAvailable, savedItem);
+        return toItemDto(savedItem);
     }
 
     @Override
@@ -142,19 +196,75 @@ public class ItemServiceImpl implements ItemService {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
+        String textForSearch = text.toLowerCase();
+        Pageable pageable = toSearchPage(from, size);
+        return searchCache.get(textForSearch, from, size, () -> searchEngine.search(textForSearch, pageable)
+                .stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<ItemDto> search(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new BadRequestException(String.format("Некорректный интервал поиска: начало %s, конец %s",
+                    start, end));
+        }
+        if (text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String textForSearch = text.toLowerCase();
+        long skip = toSearchPage(from, size).getOffset();
+        List<ItemDto> found = new ArrayList<>(size);
+        Pageable candidatesPage = PageRequest.of(0, Math.max(size, SEARCH_BATCH_SIZE));
+        Slice<Item> candidates;
+        do {
+            candidates = searchEngine.search(textForSearch, candidatesPage);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Set<Long> free = new HashSet<>(repository.findIdsFreeBetween(candidates.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList()), start, end));
+            for (Item item : candidates) {
+                if (!free.contains(item.getId())) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                found.add(toItemDto(item));
+                if (found.size() == size) {
+                    return found;
+                }
+            }
+            candidatesPage = candidatesPage.next();
+        } while (candidates.hasNext());
+        return found;
+    }
+
+    private void invalidateSearch(String oldName, String oldDescription, boolean wasAvailable, Item item) {
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        if (wasAvailable == available && oldName.equals(item.getName())
+                && oldDescription.equals(item.getDescription())) {
+            return;
+        }
+        String name = item.getName();
+        String description = item.getDescription();
+        searchCache.invalidate(text -> wasAvailable && searchEngine.matches(text, oldName, oldDescription)
+                || available && searchEngine.matches(text, name, description));
+    }
+
+    private static Pageable toSearchPage(int from, int size) {
         if (from < 0 || size <= 0) {
             throw new BadRequestException("Не правильно переданы параметры поиска, индекс первого элемента не может" +
                     " быть меньше нуля а размер страницы должен быть больше нуля");
         }
-        final Pageable pageable = PageRequest.of(
+        return PageRequest.of(
                 from == 0 ? 0 : (from / size),
                 size
         );
-        String textForSearch = text.toLowerCase();
-        return repository.search(textForSearch, pageable)
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -0,0 +1,319 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Поиск подстроки по триграммному инвертированному индексу в памяти.
+ * Для каждой триграммы названий и отдельно описаний хранится отсортированный массив id доступных вещей,
+ * сам текст в памяти не хранится. Кандидаты получаются пересечением списков триграмм запроса,
+ * загружаются из базы пачками и проверяются по названию и описанию загруженной вещи.
+ * Индекс строится при старте приложения и обновляется после коммита create/update в ItemServiceImpl
+ * и удаления вещей вместе с пользователем.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "ngram")
+@RequiredArgsConstructor
+@Slf4j
+public class NgramItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM = 3;
+    private static final int MIN_FETCH_SIZE = 50;
+
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> namePostings = new HashMap<>();
+    private final Map<Long, Postings> descriptionPostings = new HashMap<>();
+    private final Map<Long, Grams> documents = new HashMap<>();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+
+    /**
+     * Строит индекс по всем вещам. Вещи, измененные после коммита во время построения,
+     * уже проиндексированы по новым данным, и прочитанный ранее снимок их не перезаписывает.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        lock.writeLock().lock();
+        try {
+            building = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long count = 0;
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            for (Item item : (Iterable<Item>) items::iterator) {
+                lock.writeLock().lock();
+                try {
+                    if (!changedDuringBuild.contains(item.getId())) {
+                        index(item.getId(), item.getAvailable(), item.getName(), item.getDescription());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                entityManager.detach(item);
+                count++;
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        log.info("Построен триграммный индекс поиска по {} вещам", count);
+    }
+
+    @Override
+    public Slice<Item> search(String text, Pageable pageable) {
+        String query = text.toLowerCase();
+        if (!ready || query.length() < GRAM) {
+            return itemRepository.searchRanked(query, pageable);
+        }
+        long[] byName;
+        long[] byDescription;
+        lock.readLock().lock();
+        try {
+            Set<Long> grams = grams(query);
+            byName = candidates(namePostings, grams);
+            byDescription = candidates(descriptionPostings, grams);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long needed = pageable.getOffset() + pageable.getPageSize() + 1;
+        List<Item> matches = new ArrayList<>();
+        Set<Long> matchedByName = new HashSet<>();
+        collect(byName, item -> item.getName().toLowerCase().contains(query), needed, matches);
+        matches.forEach(item -> matchedByName.add(item.getId()));
+        if (matches.size() < needed) {
+            long[] remaining = Arrays.stream(byDescription).filter(id -> !matchedByName.contains(id)).toArray();
+            collect(remaining, item -> item.getDescription().toLowerCase().contains(query), needed, matches);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new SliceImpl<>(new ArrayList<>(matches.subList(from, to)), pageable, to < matches.size());
+    }
+
+    @Override
+    public void onSaved(Item item) {
+        long id = item.getId();
+        Boolean available = item.getAvailable();
+        String name = item.getName();
+        String description = item.getDescription();
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (building) {
+                    changedDuringBuild.add(id);
+                }
+                index(id, available, name, description);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void onDeleted(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Long id : ids) {
+                    if (building) {
+                        changedDuringBuild.add(id);
+                    }
+                    index(id, false, null, null);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Загружает кандидатов пачками в порядке id и добавляет в matches подтвержденные, пока их меньше needed.
+     */
+    private void collect(long[] candidates, Predicate<Item> matches, long needed, List<Item> result) {
+        int fetchSize = (int) Math.max(MIN_FETCH_SIZE, needed);
+        for (int from = 0; from < candidates.length && result.size() < needed; from += fetchSize) {
+            List<Long> ids = Arrays.stream(candidates, from, Math.min(from + fetchSize, candidates.length))
+                    .boxed()
+                    .collect(Collectors.toList());
+            Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : ids) {
+                Item item = items.get(id);
+                if (item != null && Boolean.TRUE.equals(item.getAvailable()) && matches.test(item)
+                        && result.size() < needed) {
+                    result.add(item);
+                }
+            }
+        }
+    }
+
+    /**
+     * Должен вызываться под блокировкой записи.
+     */
+    private void index(long id, Boolean available, String name, String description) {
+        Grams previous = documents.remove(id);
+        if (previous != null) {
+            unindex(namePostings, previous.name, id);
+            unindex(descriptionPostings, previous.description, id);
+        }
+        if (!Boolean.TRUE.equals(available)) {
+            return;
+        }
+        Grams grams = new Grams(toArray(grams(name.toLowerCase())), toArray(grams(description.toLowerCase())));
+        for (long gram : grams.name) {
+            namePostings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+        for (long gram : grams.description) {
+            descriptionPostings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+        documents.put(id, grams);
+    }
+
+    private static void unindex(Map<Long, Postings> postings, long[] grams, long id) {
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static long[] candidates(Map<Long, Postings> postings, Set<Long> grams) {
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings smallest = lists.get(0);
+        long[] result = new long[smallest.size];
+        int count = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static long[] toArray(Set<Long> grams) {
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Триграммы проиндексированной вещи, нужны только чтобы убрать ее id из списков при изменении.
+     */
+    private static class Grams {
+        private final long[] name;
+        private final long[] description;
+
+        private Grams(long[] name, long[] description) {
+            this.name = name;
+            this.description = description;
+        }
+    }
+
+    /**
+     * Отсортированный по возрастанию список id. Новые вещи получают большие id,
+     * поэтому добавление почти всегда идет в конец массива.
+     */
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -2,7 +2,10 @@ package ru.practicum.shareit.itemRequest;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestCursor;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.itemRequest.service.ItemRequestService;
@@ -14,6 +17,7 @@ import java.util.List;
 @AllArgsConstructor
 @Slf4j
 public class ItemRequestController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final ItemRequestService itemRequestService;
 
     @PostMapping
@@ -44,6 +48,33 @@ public class ItemRequestController {
         return itemRequestResponseDtos;
     }
 
+    @GetMapping(path = "/all", params = "after")
+    public ResponseEntity<List<ItemRequestResponseDto>> getAllAfter(@RequestParam String after,
+                                                                    @RequestParam(defaultValue = "10") int size,
+                                                                    @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Пришел /GET запрос на получение страницы запросов других пользователей для пользователя с id {} " +
+                "после курсора {}", userId, after);
+        List<ItemRequestResponseDto> itemRequestResponseDtos = itemRequestService.getAll(
+                ItemRequestCursor.decode(after), size, userId);
+        log.info("Ответ отправлен {}", itemRequestResponseDtos);
+        if (itemRequestResponseDtos.size() < size) {
+            return ResponseEntity.ok(itemRequestResponseDtos);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER,
+                        ItemRequestCursor.of(itemRequestResponseDtos.get(itemRequestResponseDtos.size() - 1)).encode())
+                .body(itemRequestResponseDtos);
+    }
+
+    @GetMapping("/{requestId}/candidates")
+    public List<ItemDto> getCandidates(@PathVariable Long requestId,
+                                       @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Пришел /GET запрос на получение подобранных вещей для запроса с id {}", requestId);
+        List<ItemDto> items = itemRequestService.getCandidates(requestId, userId);
+        log.info("Ответ отправлен {}", items);
+        return items;
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestResponseDto getById(@PathVariable Long requestId,
                                           @RequestHeader("X-Sharer-User-Id") Long userId) {
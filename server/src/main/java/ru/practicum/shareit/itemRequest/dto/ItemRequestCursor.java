@@ -0,0 +1,26 @@
+package ru.practicum.shareit.itemRequest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.pagination.CursorCodec;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ItemRequestCursor {
+    private final LocalDateTime created;
+    private final Long id;
+
+    public static ItemRequestCursor of(ItemRequestResponseDto itemRequest) {
+        return new ItemRequestCursor(itemRequest.getCreated(), itemRequest.getId());
+    }
+
+    public static ItemRequestCursor decode(String token) {
+        return CursorCodec.decode(token, ItemRequestCursor::new);
+    }
+
+    public String encode() {
+        return CursorCodec.encode(created, id);
+    }
+}
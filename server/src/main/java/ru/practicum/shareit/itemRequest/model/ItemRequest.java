@@ -21,7 +21,7 @@ public class ItemRequest {
     private Long id;
     @Column(length = 512, nullable = false)
     private String description;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "REQUESTER_ID", referencedColumnName = "id")
     private User requester;
     @Column
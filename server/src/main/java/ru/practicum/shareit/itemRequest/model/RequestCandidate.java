@@ -0,0 +1,26 @@
+package ru.practicum.shareit.itemRequest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Data
+@Entity
+@Table(name = "REQUEST_CANDIDATES")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RequestCandidate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "REQUEST_ID", nullable = false)
+    private Long requestId;
+    @Column(name = "ITEM_ID", nullable = false)
+    private Long itemId;
+    @Column(nullable = false)
+    private double score;
+}
@@ -1,16 +1,36 @@
 package ru.practicum.shareit.itemRequest.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    /**
+     * Условие для общих лент запросов: запросы пользователя, ожидающего фонового удаления,
+     * в них уже не показываются, как и сам пользователь (см. UserRepository.NOT_DELETED).
+     */
+    String REQUESTER_NOT_DELETED = "not exists (select d.userId from UserDeletion d where d.userId = ir.requester.id)";
+
     List<ItemRequest> findAllByRequesterIdOrderByCreatedAsc(Long userId);
 
-    @Query("select ir from ItemRequest as ir where ir.requester.id not in ?1")
-    Page<ItemRequest> findAll(Long userId, Pageable pageable);
+    @Query("select ir.id from ItemRequest as ir where ir.requester.id = ?1")
+    List<Long> findIdsByRequesterId(Long userId, Pageable pageable);
+
+    @Query("select ir from ItemRequest as ir where " + REQUESTER_NOT_DELETED + " order by ir.created desc, ir.id desc")
+    List<ItemRequest> findAllActive(Pageable pageable);
+
+    @Query("select ir from ItemRequest as ir where not exists (select i.id from Item i where i.request = ir)")
+    List<ItemRequest> findAllOpen();
+
+    @Query("select ir from ItemRequest as ir where ir.requester.id <> ?1 and " + REQUESTER_NOT_DELETED)
+    List<ItemRequest> findAll(Long userId, Pageable pageable);
+
+    @Query("select ir from ItemRequest as ir where ir.requester.id <> ?1 and " + REQUESTER_NOT_DELETED + " " +
+            "and (ir.created < ?2 or (ir.created = ?2 and ir.id < ?3)) " +
+            "order by ir.created desc, ir.id desc")
+    List<ItemRequest> findAllAfter(Long userId, LocalDateTime cursorCreated, Long cursorId, Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.itemRequest.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.itemRequest.model.RequestCandidate;
+
+import java.util.List;
+
+public interface RequestCandidateRepository extends JpaRepository<RequestCandidate, Long> {
+    List<RequestCandidate> findAllByRequestIdOrderByScoreDescItemIdAsc(Long requestId);
+
+    void deleteAllByRequestId(Long requestId);
+}
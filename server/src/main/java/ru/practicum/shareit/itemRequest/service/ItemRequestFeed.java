@@ -0,0 +1,247 @@
+package ru.practicum.shareit.itemRequest.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Кольцевой буфер последних запросов вещей вместе с ответами на них, общий для всех пользователей.
+ * Из него отдаются первые страницы GET /requests/all: запросы самого пользователя отфильтровываются в памяти.
+ * Буфер заполняется из базы при первом обращении и дальше пополняется после коммита
+ * создания запроса или вещи-ответа. Если страница выходит за пределы буфера, возвращается Optional.empty().
+ */
+@Component
+public class ItemRequestFeed {
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparing((Entry entry) -> entry.created, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(entry -> entry.id, Comparator.reverseOrder());
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final Entry[] ring;
+    private int head;
+    private int count;
+    private boolean loaded;
+    private boolean complete;
+    private long generation;
+
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                           @Value("${shareit.requests.feed.capacity:100}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.ring = new Entry[capacity];
+    }
+
+    /**
+     * Буфер загружается из базы без блокировки и публикуется, только если за время загрузки его никто не менял.
+     * Иначе загруженный снимок мог пропустить изменение, и запрос обслуживается из базы.
+     */
+    public Optional<List<ItemRequestResponseDto>> getPage(Long userId, int from, int size) {
+        long loadGeneration;
+        synchronized (this) {
+            if (loaded) {
+                return page(userId, from, size);
+            }
+            loadGeneration = generation;
+        }
+        List<Entry> entries = load();
+        synchronized (this) {
+            if (!loaded && loadGeneration == generation) {
+                publish(entries);
+            }
+            return loaded ? page(userId, from, size) : Optional.empty();
+        }
+    }
+
+    public void onCreated(ItemRequest itemRequest, Long requesterId) {
+        Entry entry = new Entry(itemRequest.getId(), requesterId, itemRequest.getDescription(),
+                itemRequest.getCreated());
+        afterCommit(() -> add(entry));
+    }
+
+    public void onItemSaved(Long requestId, ItemShortDto item) {
+        afterCommit(() -> putItem(requestId, item));
+    }
+
+    /**
+     * Убирает запросы пользователя, помеченного на удаление, сразу и еще раз после коммита пометки,
+     * чтобы не осталось записей, добавленных до коммита.
+     */
+    public void onRequesterDeleted(Long requesterId) {
+        removeRequester(requesterId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> removeRequester(requesterId));
+        }
+    }
+
+    public synchronized void reset() {
+        generation++;
+        loaded = false;
+        count = 0;
+        head = 0;
+    }
+
+    private synchronized void add(Entry entry) {
+        generation++;
+        if (!loaded || indexOf(entry.id) >= 0) {
+            return;
+        }
+        if (count == ring.length) {
+            complete = false;
+            if (NEWEST_FIRST.compare(entry, get(count - 1)) > 0) {
+                return;
+            }
+            count--;
+        }
+        head = (head - 1 + ring.length) % ring.length;
+        count++;
+        int i = 0;
+        while (i + 1 < count && NEWEST_FIRST.compare(entry, get(i + 1)) > 0) {
+            set(i, get(i + 1));
+            i++;
+        }
+        set(i, entry);
+    }
+
+    private synchronized void removeRequester(Long requesterId) {
+        generation++;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Entry entry = get(i);
+            if (!entry.requesterId.equals(requesterId)) {
+                set(kept++, entry);
+            }
+        }
+        count = kept;
+    }
+
+    private synchronized void putItem(Long requestId, ItemShortDto item) {
+        generation++;
+        int index = indexOf(requestId);
+        if (!loaded || index < 0) {
+            return;
+        }
+        List<ItemShortDto> items = get(index).items;
+        items.removeIf(existing -> existing.getId().equals(item.getId()));
+        items.add(item);
+    }
+
+    private Optional<List<ItemRequestResponseDto>> page(Long userId, int from, int size) {
+        List<ItemRequestResponseDto> page = new ArrayList<>(size);
+        int skip = from;
+        for (int i = 0; i < count && page.size() < size; i++) {
+            Entry entry = get(i);
+            if (entry.requesterId.equals(userId)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            page.add(entry.toDto());
+        }
+        if (page.size() < size && !complete) {
+            return Optional.empty();
+        }
+        return Optional.of(page);
+    }
+
+    private List<Entry> load() {
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllActive(PageRequest.of(0, ring.length));
+        Map<Long, List<ItemShortDto>> itemsByRequest = itemRequests.isEmpty() ? Map.of() :
+                itemRepository.findAllByRequestIdIn(itemRequests.stream()
+                                .map(ItemRequest::getId)
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .map(ItemMapper::toItemShortDto)
+                        .collect(Collectors.groupingBy(ItemShortDto::getRequestId));
+        List<Entry> entries = new ArrayList<>(itemRequests.size());
+        for (ItemRequest itemRequest : itemRequests) {
+            Entry entry = new Entry(itemRequest.getId(), itemRequest.getRequester().getId(),
+                    itemRequest.getDescription(), itemRequest.getCreated());
+            entry.items.addAll(itemsByRequest.getOrDefault(itemRequest.getId(), List.of()));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private void publish(List<Entry> entries) {
+        head = 0;
+        count = entries.size();
+        for (int i = 0; i < count; i++) {
+            ring[i] = entries.get(i);
+        }
+        complete = count < ring.length;
+        loaded = true;
+    }
+
+    private int indexOf(Long requestId) {
+        for (int i = 0; i < count; i++) {
+            if (get(i).id.equals(requestId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Entry get(int i) {
+        return ring[(head + i) % ring.length];
+    }
+
+    private void set(int i, Entry entry) {
+        ring[(head + i) % ring.length] = entry;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Entry {
+        private final Long id;
+        private final Long requesterId;
+        private final String description;
+        private final LocalDateTime created;
+        private final List<ItemShortDto> items = new ArrayList<>();
+
+        private Entry(Long id, Long requesterId, String description, LocalDateTime created) {
+            this.id = id;
+            this.requesterId = requesterId;
+            this.description = description;
+            this.created = created;
+        }
+
+        private ItemRequestResponseDto toDto() {
+            return ItemRequestResponseDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(List.copyOf(items))
+                    .build();
+        }
+    }
+}
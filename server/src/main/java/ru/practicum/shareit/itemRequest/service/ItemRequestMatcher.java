@@ -0,0 +1,275 @@
+package ru.practicum.shareit.itemRequest.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchEngine;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.itemRequest.model.RequestCandidate;
+import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.repository.RequestCandidateRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Подбор вещей-кандидатов для запросов. Описание запроса разбивается на слова, каждое слово ищется
+ * через ItemSearchEngine, и для запроса сохраняются topK вещей с наибольшим весом
+ * (совпадение в названии весит 2, в описании 1). Новая доступная вещь сопоставляется только с открытыми
+ * запросами (без вещей-ответов), которые хранятся в памяти с индексом по словам. Удаленные запросы
+ * убираются из индекса через onRequestsDeleted.
+ * Вся работа идет в одном отдельном потоке после коммита, поэтому индекс открытых запросов не требует блокировок.
+ */
+@Component
+@Slf4j
+public class ItemRequestMatcher {
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MAX_TOKENS = 10;
+
+    private final ItemSearchEngine searchEngine;
+    private final ItemRequestRepository itemRequestRepository;
+    private final RequestCandidateRepository candidateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int topK;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-request-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, OpenRequest> openRequests = new HashMap<>();
+    private final Map<String, Set<Long>> openRequestsByToken = new HashMap<>();
+    private boolean loaded;
+
+    public ItemRequestMatcher(ItemSearchEngine searchEngine,
+                              ItemRequestRepository itemRequestRepository,
+                              RequestCandidateRepository candidateRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${shareit.requests.candidates.top-k:10}") int topK) {
+        this.searchEngine = searchEngine;
+        this.itemRequestRepository = itemRequestRepository;
+        this.candidateRepository = candidateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.topK = topK;
+    }
+
+    public void onRequestCreated(ItemRequest itemRequest, Long requesterId) {
+        OpenRequest request = new OpenRequest(itemRequest.getId(), requesterId, tokenize(itemRequest.getDescription()));
+        submitAfterCommit(() -> matchRequest(request));
+    }
+
+    public void onItemSaved(Item item, Long ownerId) {
+        long itemId = item.getId();
+        Long requestId = item.getRequest() == null ? null : item.getRequest().getId();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        String name = item.getName().toLowerCase();
+        String description = item.getDescription().toLowerCase();
+        submitAfterCommit(() -> {
+            if (requestId != null) {
+                close(requestId);
+            }
+            if (available) {
+                matchItem(itemId, ownerId, name, description);
+            }
+        });
+    }
+
+    /**
+     * Убирает удаленные запросы из индекса открытых запросов после коммита удаления.
+     */
+    public void onRequestsDeleted(Collection<Long> requestIds) {
+        List<Long> ids = List.copyOf(requestIds);
+        submitAfterCommit(() -> ids.forEach(this::close));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void matchRequest(OpenRequest request) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : request.tokens) {
+            for (Item item : searchEngine.search(token, PageRequest.of(0, topK * 5))) {
+                if (item.getOwner().getId() == request.requesterId) {
+                    continue;
+                }
+                scores.merge(item.getId(), score(token, item.getName().toLowerCase()), Double::sum);
+            }
+        }
+        List<RequestCandidate> candidates = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topK)
+                .map(entry -> RequestCandidate.builder()
+                        .requestId(request.id)
+                        .itemId(entry.getKey())
+                        .score(entry.getValue())
+                        .build())
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            candidateRepository.deleteAllByRequestId(request.id);
+            candidateRepository.saveAll(candidates);
+        });
+        if (loaded) {
+            open(request);
+        }
+        log.debug("Для запроса {} подобрано {} вещей", request.id, candidates.size());
+    }
+
+    /**
+     * Токен запроса состоит только из букв и цифр, поэтому он входит в текст вещи, только если он подстрока
+     * одного из ее слов. Вместо перебора всех токенов открытых запросов ищутся подстроки слов вещи.
+     */
+    private void matchItem(long itemId, Long ownerId, String name, String description) {
+        load();
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : substrings(name + " " + description)) {
+            Set<Long> requestIds = openRequestsByToken.get(token);
+            if (requestIds == null) {
+                continue;
+            }
+            double score = score(token, name);
+            for (Long requestId : requestIds) {
+                if (!openRequests.get(requestId).requesterId.equals(ownerId)) {
+                    scores.merge(requestId, score, Double::sum);
+                }
+            }
+        }
+        scores.forEach((requestId, score) -> {
+            try {
+                saveCandidate(requestId, itemId, score);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Запрос {} удален во время подбора вещей", requestId);
+                close(requestId);
+            }
+        });
+    }
+
+    private void saveCandidate(Long requestId, long itemId, double score) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<RequestCandidate> candidates = candidateRepository.findAllByRequestIdOrderByScoreDescItemIdAsc(
+                    requestId);
+            for (RequestCandidate candidate : candidates) {
+                if (candidate.getItemId() == itemId) {
+                    candidate.setScore(score);
+                    candidateRepository.save(candidate);
+                    return;
+                }
+            }
+            if (candidates.size() >= topK) {
+                RequestCandidate weakest = candidates.get(candidates.size() - 1);
+                if (weakest.getScore() >= score) {
+                    return;
+                }
+                candidateRepository.delete(weakest);
+            }
+            candidateRepository.save(RequestCandidate.builder()
+                    .requestId(requestId)
+                    .itemId(itemId)
+                    .score(score)
+                    .build());
+        });
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        for (ItemRequest itemRequest : itemRequestRepository.findAllOpen()) {
+            open(new OpenRequest(itemRequest.getId(), itemRequest.getRequester().getId(),
+                    tokenize(itemRequest.getDescription())));
+        }
+        loaded = true;
+    }
+
+    private void open(OpenRequest request) {
+        openRequests.put(request.id, request);
+        request.tokens.forEach(token -> openRequestsByToken.computeIfAbsent(token, key -> new HashSet<>())
+                .add(request.id));
+    }
+
+    private void close(Long requestId) {
+        OpenRequest request = openRequests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String token : request.tokens) {
+            Set<Long> requests = openRequestsByToken.get(token);
+            requests.remove(requestId);
+            if (requests.isEmpty()) {
+                openRequestsByToken.remove(token);
+            }
+        }
+    }
+
+    private void submitAfterCommit(Runnable task) {
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Не удалось подобрать вещи для запросов", e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(guarded);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                executor.execute(guarded);
+            }
+        });
+    }
+
+    private static double score(String token, String name) {
+        return name.contains(token) ? 2 : 1;
+    }
+
+    private static Set<String> substrings(String text) {
+        Set<String> substrings = new HashSet<>();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            for (int start = 0; start + MIN_TOKEN_LENGTH <= word.length(); start++) {
+                for (int end = start + MIN_TOKEN_LENGTH; end <= word.length(); end++) {
+                    substrings.add(word.substring(start, end));
+                }
+            }
+        }
+        return substrings;
+    }
+
+    static Set<String> tokenize(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH)
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .limit(MAX_TOKENS)
+                .collect(Collectors.toSet());
+    }
+
+    private static class OpenRequest {
+        private final Long id;
+        private final Long requesterId;
+        private final Set<String> tokens;
+
+        private OpenRequest(Long id, Long requesterId, Set<String> tokens) {
+            this.id = id;
+            this.requesterId = requesterId;
+            this.tokens = tokens;
+        }
+    }
+}
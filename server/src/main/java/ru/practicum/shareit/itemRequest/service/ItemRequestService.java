@@ -1,5 +1,7 @@
 package ru.practicum.shareit.itemRequest.service;
 
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestCursor;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
 
@@ -12,5 +14,9 @@ public interface ItemRequestService {
 
     List<ItemRequestResponseDto> getAll(int from, int size, Long userId);
 
+    List<ItemRequestResponseDto> getAll(ItemRequestCursor after, int size, Long userId);
+
     ItemRequestResponseDto getById(Long requestId, Long userId);
+
+    List<ItemDto> getCandidates(Long requestId, Long userId);
 }
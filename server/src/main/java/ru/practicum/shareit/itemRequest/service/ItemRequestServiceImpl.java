@@ -7,17 +7,27 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestCursor;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.itemRequest.mapper.ItemRequestMapper;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.itemRequest.model.RequestCandidate;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.repository.RequestCandidateRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.itemRequest.mapper.ItemRequestMapper.mapToItemRequest;
@@ -29,28 +39,33 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemRequestFeed itemRequestFeed;
+    private final RequestCandidateRepository candidateRepository;
+    private final ItemRequestMatcher itemRequestMatcher;
 
     @Transactional
     @Override
     public ItemRequestResponseDto create(Long userId, ItemRequestDto itemRequestDto) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findActiveById(userId)
                 .orElseThrow(() -> new DataNotFoundException(String.format("Пользователь c id %d не найден", userId)));
 
         ItemRequest itemRequest = mapToItemRequest(itemRequestDto, user);
         itemRequestRepository.save(itemRequest);
+        itemRequestFeed.onCreated(itemRequest, user.getId());
+        itemRequestMatcher.onRequestCreated(itemRequest, user.getId());
 
         return mapToItemRequestResponseDto(itemRequest);
     }
 
     @Override
     public List<ItemRequestResponseDto> getAllByUser(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findActiveById(userId)
                 .orElseThrow(() -> new DataNotFoundException(String.format("Пользователь c id %d не найден", userId)));
         List<ItemRequestResponseDto> itemsRequest = itemRequestRepository.findAllByRequesterIdOrderByCreatedAsc(user.getId())
                 .stream()
                 .map(ItemRequestMapper::mapToItemRequestResponseDto)
                 .collect(Collectors.toList());
-        itemsRequest.forEach(this::setItems);
+        setItems(itemsRequest);
 
         return itemsRequest;
     }
@@ -61,22 +76,47 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new BadRequestException("Не правильно переданы параметры поиска, индекс первого элемента не может" +
                     " быть меньше нуля а размер страницы должен быть больше нуля");
         }
-        final PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("created").descending());
+        final PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "created", "id"));
 
-        User user = userRepository.findById(userId)
+        User user = userRepository.findActiveById(userId)
                 .orElseThrow(() -> new DataNotFoundException(String.format("Пользователь c id %d не найден", userId)));
+        Optional<List<ItemRequestResponseDto>> cached = itemRequestFeed.getPage(user.getId(),
+                (int) pageRequest.getOffset(), size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         List<ItemRequestResponseDto> itemsRequest = itemRequestRepository.findAll(user.getId(), pageRequest)
                 .stream()
                 .map(ItemRequestMapper::mapToItemRequestResponseDto)
                 .collect(Collectors.toList());
-        itemsRequest.forEach(this::setItems);
+        setItems(itemsRequest);
+
+        return itemsRequest;
+    }
+
+    @Override
+    public List<ItemRequestResponseDto> getAll(ItemRequestCursor after, int size, Long userId) {
+        if (after == null) {
+            return getAll(0, size, userId);
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Размер страницы должен быть больше нуля");
+        }
+        User user = userRepository.findActiveById(userId)
+                .orElseThrow(() -> new DataNotFoundException(String.format("Пользователь c id %d не найден", userId)));
+        List<ItemRequestResponseDto> itemsRequest = itemRequestRepository.findAllAfter(user.getId(), after.getCreated(),
+                        after.getId(), PageRequest.of(0, size))
+                .stream()
+                .map(ItemRequestMapper::mapToItemRequestResponseDto)
+                .collect(Collectors.toList());
+        setItems(itemsRequest);
 
         return itemsRequest;
     }
 
     @Override
     public ItemRequestResponseDto getById(Long requestId, Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findActiveById(userId)
                 .orElseThrow(() -> new DataNotFoundException(String.format("Пользователь c id %d не найден", userId)));
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new DataNotFoundException(String.format("Запрос с id %d не найден", requestId)));
@@ -86,6 +126,45 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestResponseDto;
     }
 
+    @Override
+    public List<ItemDto> getCandidates(Long requestId, Long userId) {
+        userRepository.findActiveById(userId)
+                .orElseThrow(() -> new DataNotFoundException(String.format("Пользователь c id %d не найден", userId)));
+        if (!itemRequestRepository.existsById(requestId)) {
+            throw new DataNotFoundException(String.format("Запрос с id %d не найден", requestId));
+        }
+        List<Long> itemIds = candidateRepository.findAllByRequestIdOrderByScoreDescItemIdAsc(requestId)
+                .stream()
+                .map(RequestCandidate::getItemId)
+                .collect(Collectors.toList());
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(item -> item != null && Boolean.TRUE.equals(item.getAvailable()))
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private void setItems(List<ItemRequestResponseDto> itemsRequest) {
+        if (itemsRequest.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemsRequest.stream()
+                .map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemShortDto>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestIds)
+                .stream()
+                .map(ItemMapper::toItemShortDto)
+                .collect(Collectors.groupingBy(ItemShortDto::getRequestId));
+        itemsRequest.forEach(itemRequest -> itemRequest.setItems(
+                itemsByRequest.getOrDefault(itemRequest.getId(), Collections.emptyList())));
+    }
+
     private void setItems(ItemRequestResponseDto itemRequestResponseDto) {
         itemRequestResponseDto.setItems(itemRepository.findAllByRequestId(itemRequestResponseDto.getId())
                 .stream()
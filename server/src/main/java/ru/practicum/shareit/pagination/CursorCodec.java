@@ -0,0 +1,39 @@
+package ru.practicum.shareit.pagination;
+
+import ru.practicum.shareit.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+/**
+ * Кодирование курсора keyset-пагинации (время, id) в непрозрачную строку для параметра after
+ * и заголовка X-Next-Cursor.
+ */
+public final class CursorCodec {
+    private static final String SEPARATOR = "_";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(LocalDateTime time, Long id) {
+        String value = time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static <T> T decode(String token, BiFunction<LocalDateTime, Long, T> cursor) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return cursor.apply(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException(String.format("Некорректный курсор страницы %s", token));
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,16 +22,59 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class UserController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<UserDto> getAll() {
         log.info("Пришел /GET запрос на получение всех пользователей");
         List<UserDto> users = userService.getAll();
-        log.info("Ответ отправлен {}", users);
+        log.info("Ответ отправлен, пользователей {}", users.size());
         return users;
     }
 
+    @GetMapping(params = "from")
+    public List<UserDto> getAll(@RequestParam int from, @RequestParam(defaultValue = "10") int size) {
+        log.info("Пришел /GET запрос на получение страницы пользователей from {} size {}", from, size);
+        List<UserDto> users = userService.getAll(from, size);
+        log.info("Ответ отправлен, пользователей {}", users.size());
+        return users;
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<List<UserDto>> getAllAfter(@RequestParam Long after,
+                                                     @RequestParam(defaultValue = "10") int size) {
+        log.info("Пришел /GET запрос на получение страницы пользователей после id {}", after);
+        List<UserDto> users = userService.getAllAfter(after, size);
+        log.info("Ответ отправлен, пользователей {}", users.size());
+        if (users.size() < size) {
+            return ResponseEntity.ok(users);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()))
+                .body(users);
+    }
+
+    /**
+     * Отдает всех пользователей JSON-массивом, который пишется в ответ по мере чтения из базы,
+     * без сборки списка в памяти.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> getAllAsStream() {
+        log.info("Пришел /GET запрос на потоковое получение всех пользователей");
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userService.streamAll(user -> write(generator, user));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public UserDto getById(@PathVariable Long id) {
         log.info("Пришел /GET запрос на получение пользователя по id {}", id);
@@ -54,4 +105,20 @@ public class UserController {
         userService.delete(id);
         log.info("Пользователь удален ");
     }
+
+    @DeleteMapping(value = "/{id}", params = "async=true")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void deleteAsync(@PathVariable Long id) {
+        log.info("Пришел /DELETE запрос на фоновое удаление пользователя с id {}", id);
+        userService.deleteAsync(id);
+        log.info("Пользователь с id {} помечен на удаление", id);
+    }
+
+    private static void write(JsonGenerator generator, UserDto user) {
+        try {
+            generator.writeObject(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dto.UserDeletionProgress;
+import ru.practicum.shareit.user.service.UserPurger;
+
+import java.util.List;
+
+/**
+ * Ход фоновой очистки удаленных пользователей: /actuator/userdeletions и /actuator/userdeletions/{userId}.
+ */
+@Component
+@Endpoint(id = "userdeletions")
+@RequiredArgsConstructor
+public class UserDeletionEndpoint {
+    private final UserPurger userPurger;
+
+    @ReadOperation
+    public List<UserDeletionProgress> deletions() {
+        return userPurger.getProgress();
+    }
+
+    @ReadOperation
+    public UserDeletionProgress deletion(@Selector Long userId) {
+        return userPurger.getProgress(userId).orElse(null);
+    }
+}
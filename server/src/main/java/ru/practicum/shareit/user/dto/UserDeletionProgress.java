@@ -0,0 +1,52 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Состояние фоновой очистки данных удаленного пользователя для actuator-эндпоинта userdeletions.
+ */
+@Getter
+public class UserDeletionProgress {
+    private final Long userId;
+    private final LocalDateTime requested;
+    private final Map<String, Long> deleted = new LinkedHashMap<>();
+    private volatile Stage stage = Stage.QUEUED;
+    private volatile LocalDateTime finished;
+    private volatile String error;
+
+    public UserDeletionProgress(Long userId, LocalDateTime requested) {
+        this.userId = userId;
+        this.requested = requested;
+    }
+
+    public synchronized Map<String, Long> getDeleted() {
+        return Map.copyOf(deleted);
+    }
+
+    public void start(Stage stage) {
+        this.stage = stage;
+    }
+
+    public synchronized void addDeleted(Stage stage, long count) {
+        deleted.merge(stage.name().toLowerCase(), count, Long::sum);
+    }
+
+    public void finish() {
+        stage = Stage.DONE;
+        finished = LocalDateTime.now();
+    }
+
+    public void fail(String error) {
+        stage = Stage.FAILED;
+        this.error = error;
+        finished = LocalDateTime.now();
+    }
+
+    public enum Stage {
+        QUEUED, BOOKINGS, COMMENTS, ITEMS, ANSWERS, REQUESTS, USER, DONE, FAILED
+    }
+}
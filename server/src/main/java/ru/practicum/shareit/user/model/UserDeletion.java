@@ -0,0 +1,26 @@
+package ru.practicum.shareit.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "USER_DELETIONS")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserDeletion {
+    @Id
+    @Column(name = "USER_ID")
+    private Long userId;
+    @Column(nullable = false)
+    private LocalDateTime requested;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.user.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.user.model.UserDeletion;
+
+public interface UserDeletionRepository extends JpaRepository<UserDeletion, Long> {
+}
@@ -1,7 +1,36 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Пользователь, помеченный на удаление, остается в таблице до окончания очистки его данных,
+     * но считается удаленным.
+     */
+    String NOT_DELETED = "not exists (select d.userId from UserDeletion d where d.userId = u.id)";
+
+    @Query("select u from User u where u.id = ?1 and " + NOT_DELETED)
+    Optional<User> findActiveById(Long id);
+
+    @Query("select u from User u where " + NOT_DELETED)
+    List<User> findAllActive();
+
+    @Query("select u from User u where " + NOT_DELETED + " order by u.id")
+    List<User> findAllActive(Pageable pageable);
+
+    @Query("select u from User u where u.id > ?1 and " + NOT_DELETED + " order by u.id")
+    List<User> findAllActiveAfter(Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u from User u where " + NOT_DELETED + " order by u.id")
+    Stream<User> streamAll();
 }
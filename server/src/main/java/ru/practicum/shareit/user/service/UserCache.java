@@ -0,0 +1,138 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш пользователей по id для UserServiceImpl.getById. Отсутствующие id тоже кэшируются (с более коротким ttl),
+ * чтобы запросы с несуществующим X-Sharer-User-Id не доходили до базы.
+ * Размер ограничен, при переполнении вытесняется давно не запрашивавшаяся запись.
+ * Метрики cache.gets, cache.size, cache.hit.ratio и cache.load с тегом cache=users доступны через /actuator/metrics.
+ */
+@Component
+public class UserCache {
+    private static final String CACHE_NAME = "users";
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<Long, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loads;
+    private long generation;
+
+    public UserCache(@Value("${shareit.users.cache.max-size:10000}") int maxSize,
+                     @Value("${shareit.users.cache.ttl:10m}") Duration ttl,
+                     @Value("${shareit.users.cache.negative-ttl:30s}") Duration negativeTtl,
+                     MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > UserCache.this.maxSize;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        this.loads = Timer.builder("cache.load").tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, UserCache::size).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, UserCache::hitRatio).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    public Optional<UserDto> get(Long id, Function<Long, Optional<UserDto>> loader) {
+        long now = System.nanoTime();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expires - now > 0) {
+                hits.increment();
+                return entry.copy();
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        Optional<UserDto> user = loads.record(() -> loader.apply(id));
+        synchronized (entries) {
+            if (loadGeneration == generation) {
+                put(id, user.orElse(null));
+            }
+        }
+        return user.map(dto -> dto.toBuilder().build());
+    }
+
+    public void put(Long id, UserDto user) {
+        long expires = System.nanoTime() + (user == null ? negativeTtlNanos : ttlNanos);
+        synchronized (entries) {
+            entries.put(id, new Entry(user == null ? null : user.toBuilder().build(), expires));
+        }
+    }
+
+    /**
+     * Удаляет запись сразу и еще раз после коммита текущей транзакции,
+     * чтобы не осталось значения, прочитанного до коммита.
+     */
+    public void evict(Long id) {
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void remove(Long id) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(id);
+        }
+    }
+
+    private static class Entry {
+        private final UserDto user;
+        private final long expires;
+
+        private Entry(UserDto user, long expires) {
+            this.user = user;
+            this.expires = expires;
+        }
+
+        private Optional<UserDto> copy() {
+            return Optional.ofNullable(user).map(dto -> dto.toBuilder().build());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingCounter;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCounter;
+import ru.practicum.shareit.item.service.ItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.service.ItemRequestFeed;
+import ru.practicum.shareit.itemRequest.service.ItemRequestMatcher;
+import ru.practicum.shareit.user.dto.UserDeletionProgress;
+import ru.practicum.shareit.user.dto.UserDeletionProgress.Stage;
+import ru.practicum.shareit.user.model.UserDeletion;
+import ru.practicum.shareit.user.repository.UserDeletionRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая очистка данных пользователей, помеченных на удаление через UserService.deleteAsync.
+ * Бронирования, отзывы, вещи и запросы удаляются пачками по batchSize строк, каждая пачка в своей
+ * транзакции, поэтому блокировки держатся недолго. Перед удалением запросов чужие вещи-ответы на них
+ * так же пачками отвязываются от запросов, чтобы каскад ITEMS.REQUEST_ID их не удалил. Последней удаляется строка пользователя,
+ * вместе с ней каскадом удаляется и пометка. Незаконченные очистки возобновляются после перезапуска.
+ */
+@Component
+@Slf4j
+public class UserPurger {
+    private static final int MAX_PROGRESS_ENTRIES = 100;
+
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserRepository userRepository;
+    private final UserDeletionRepository userDeletionRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingCounter bookingCounter;
+    private final ItemCounter itemCounter;
+    private final ItemSearchEngine searchEngine;
+    private final ItemSearchCache searchCache;
+    private final ItemRequestFeed itemRequestFeed;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, UserDeletionProgress> progress = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserDeletionProgress> eldest) {
+            return size() > MAX_PROGRESS_ENTRIES && eldest.getValue().getFinished() != null;
+        }
+    };
+
+    public UserPurger(BookingRepository bookingRepository,
+                      CommentRepository commentRepository,
+                      ItemRepository itemRepository,
+                      ItemRequestRepository itemRequestRepository,
+                      UserRepository userRepository,
+                      UserDeletionRepository userDeletionRepository,
+                      BookingIntervalIndex bookingIntervalIndex,
+                      BookingCounter bookingCounter,
+                      ItemCounter itemCounter,
+                      ItemSearchEngine searchEngine,
+                      ItemSearchCache searchCache,
+                      ItemRequestFeed itemRequestFeed,
+                      ItemRequestMatcher itemRequestMatcher,
+                      TransactionTemplate transactionTemplate,
+                      @Value("${shareit.users.purge.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+        this.itemRepository = itemRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.userRepository = userRepository;
+        this.userDeletionRepository = userDeletionRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.bookingCounter = bookingCounter;
+        this.itemCounter = itemCounter;
+        this.searchEngine = searchEngine;
+        this.searchCache = searchCache;
+        this.itemRequestFeed = itemRequestFeed;
+        this.itemRequestMatcher = itemRequestMatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        for (UserDeletion deletion : userDeletionRepository.findAll()) {
+            log.info("Возобновлена очистка данных пользователя с id {}", deletion.getUserId());
+            submit(deletion);
+        }
+    }
+
+    /**
+     * Ставит очистку в очередь после коммита транзакции, в которой пользователь помечен на удаление.
+     */
+    public void purgeAfterCommit(UserDeletion deletion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(deletion);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(deletion);
+            }
+        });
+    }
+
+    public List<UserDeletionProgress> getProgress() {
+        synchronized (progress) {
+            return new ArrayList<>(progress.values());
+        }
+    }
+
+    public Optional<UserDeletionProgress> getProgress(Long userId) {
+        synchronized (progress) {
+            return Optional.ofNullable(progress.get(userId));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(UserDeletion deletion) {
+        UserDeletionProgress userProgress = new UserDeletionProgress(deletion.getUserId(), deletion.getRequested());
+        synchronized (progress) {
+            progress.put(deletion.getUserId(), userProgress);
+        }
+        executor.execute(() -> {
+            try {
+                purge(deletion.getUserId(), userProgress);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось очистить данные пользователя с id {}", deletion.getUserId(), e);
+                userProgress.fail(e.getMessage());
+            }
+        });
+    }
+
+    private void purge(Long userId, UserDeletionProgress userProgress) {
+        Set<Long> bookerIds = new HashSet<>();
+        purge(userProgress, Stage.BOOKINGS, pageable -> {
+            List<Booking> bookings = bookingRepository.findAllByBookerOrOwner(userId, pageable);
+            bookings.forEach(booking -> {
+                bookingIntervalIndex.remove(booking);
+                bookerIds.add(booking.getBooker().getId());
+            });
+            return bookings.stream().map(Booking::getId).collect(Collectors.toList());
+        }, bookingRepository::deleteAllByIdInBatch);
+        bookerIds.forEach(bookingCounter::evict);
+        purge(userProgress, Stage.COMMENTS, pageable -> commentRepository.findIdsByAuthorOrOwner(userId, pageable),
+                commentRepository::deleteAllByIdInBatch);
+        purge(userProgress, Stage.ITEMS, pageable -> itemRepository.findIdsByOwnerId(userId, pageable),
+                ids -> {
+                    itemRepository.deleteAllByIdInBatch(ids);
+                    searchEngine.onDeleted(ids);
+                });
+        purge(userProgress, Stage.ANSWERS, pageable -> itemRepository.findIdsAnsweringRequesterId(userId, pageable),
+                itemRepository::clearRequestByIdIn);
+        purge(userProgress, Stage.REQUESTS, pageable -> itemRequestRepository.findIdsByRequesterId(userId, pageable),
+                ids -> {
+                    itemRequestRepository.deleteAllByIdInBatch(ids);
+                    itemRequestMatcher.onRequestsDeleted(ids);
+                });
+        userProgress.start(Stage.USER);
+        transactionTemplate.executeWithoutResult(status -> userRepository.deleteById(userId));
+        userProgress.addDeleted(Stage.USER, 1);
+        itemCounter.evict(userId);
+        searchCache.invalidate(text -> true);
+        itemRequestFeed.reset();
+        userProgress.finish();
+        log.info("Данные пользователя с id {} очищены: {}", userId, userProgress.getDeleted());
+    }
+
+    private void purge(UserDeletionProgress userProgress, Stage stage, Function<Pageable, List<Long>> nextBatch,
+                       Consumer<List<Long>> delete) {
+        userProgress.start(stage);
+        Pageable pageable = PageRequest.of(0, batchSize);
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = nextBatch.apply(pageable);
+                if (!ids.isEmpty()) {
+                    delete.accept(ids);
+                }
+                return ids.size();
+            });
+            userProgress.addDeleted(stage, deleted);
+        } while (deleted == batchSize);
+    }
+}
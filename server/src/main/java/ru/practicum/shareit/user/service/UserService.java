@@ -4,10 +4,17 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     List<UserDto> getAll();
 
+    List<UserDto> getAll(int from, int size);
+
+    List<UserDto> getAllAfter(Long after, int size);
+
+    void streamAll(Consumer<UserDto> action);
+
     UserDto getById(Long id);
 
     UserDto create(User user);
@@ -15,4 +22,6 @@ public interface UserService {
     UserDto update(User user, Long id);
 
     void delete(Long id);
+
+    void deleteAsync(Long id);
 }
@@ -1,16 +1,37 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingCounter;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCounter;
+import ru.practicum.shareit.item.service.ItemSearchEngine;
+import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.service.ItemRequestFeed;
+import ru.practicum.shareit.itemRequest.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletion;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.repository.UserDeletionRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.user.mapper.UserMapper.toUserDto;
 
@@ -19,41 +40,112 @@ import static ru.practicum.shareit.user.mapper.UserMapper.toUserDto;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserDeletionRepository userDeletionRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingCounter bookingCounter;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemRepository itemRepository;
+    private final ItemCounter itemCounter;
+    private final ItemSearchEngine searchEngine;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestFeed itemRequestFeed;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final UserCache userCache;
+    private final UserPurger userPurger;
+    private final EntityManager entityManager;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserDeletionRepository userDeletionRepository,
+                           BookingRepository bookingRepository, BookingCounter bookingCounter,
+                           BookingIntervalIndex bookingIntervalIndex,
+                           ItemRepository itemRepository, ItemCounter itemCounter, ItemSearchEngine searchEngine,
+                           ItemRequestRepository itemRequestRepository, ItemRequestFeed itemRequestFeed,
+                           ItemRequestMatcher itemRequestMatcher, UserCache userCache, UserPurger userPurger,
+                           EntityManager entityManager) {
         this.userRepository = userRepository;
+        this.userDeletionRepository = userDeletionRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingCounter = bookingCounter;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemRepository = itemRepository;
+        this.itemCounter = itemCounter;
+        this.searchEngine = searchEngine;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRequestFeed = itemRequestFeed;
+        this.itemRequestMatcher = itemRequestMatcher;
+        this.userCache = userCache;
+        this.userPurger = userPurger;
+        this.entityManager = entityManager;
     }
 
     @Override
     public List<UserDto> getAll() {
         List<UserDto> users = new ArrayList<>();
-        for (User user : userRepository.findAll()) {
+        for (User user : userRepository.findAllActive()) {
             users.add(toUserDto(user));
         }
         return users;
     }
 
+    @Override
+    public List<UserDto> getAll(int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException("Не правильно переданы параметры поиска, индекс первого элемента не может" +
+                    " быть меньше нуля а размер страницы должен быть больше нуля");
+        }
+        return userRepository.findAllActive(PageRequest.of(from / size, size))
+                .stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<UserDto> getAllAfter(Long after, int size) {
+        if (size <= 0) {
+            throw new BadRequestException("Размер страницы должен быть больше нуля");
+        }
+        return userRepository.findAllActiveAfter(after, PageRequest.of(0, size))
+                .stream()
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Передает пользователей в action по одному, читая их курсором из базы.
+     * Прочитанные сущности сразу отсоединяются, поэтому контекст персистентности не растет.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAll(Consumer<UserDto> action) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                entityManager.detach(user);
+                action.accept(toUserDto(user));
+            });
+        }
+    }
+
     @Override
     public UserDto getById(Long id) {
-        User user = userRepository.findById(id).orElseThrow(
+        return userCache.get(id, userId -> userRepository.findActiveById(userId).map(UserMapper::toUserDto)).orElseThrow(
                 () -> new DataNotFoundException(String.format("Пользователь с id %d не найден", id)));
-        return toUserDto(user);
     }
 
     @Transactional
     @Override
     public UserDto create(User user) {
         User createdUser = userRepository.save(user);
+        userCache.evict(createdUser.getId());
         return toUserDto(createdUser);
     }
 
     @Transactional
     @Override
     public UserDto update(User user, Long id) {
-        User updatedUser = userRepository.findById(id).orElseThrow(
+        User updatedUser = userRepository.findActiveById(id).orElseThrow(
                 () -> new DataNotFoundException(String.format("Пользователь с id %d не найден", id)));
         Optional.ofNullable(user.getEmail()).ifPresent(updatedUser::setEmail);
         Optional.ofNullable(user.getName()).ifPresent(updatedUser::setName);
+        userCache.evict(id);
 
         return toUserDto(userRepository.save(updatedUser));
     }
@@ -62,6 +154,39 @@ public class UserServiceImpl implements UserService {
     @Override
     public void delete(Long id) {
         getById(id);
+        List<Long> bookerIds = bookingRepository.findBookerIdsByOwnerId(id);
+        List<Booking> bookings = bookingRepository.findAllByBookerOrOwner(id, Pageable.unpaged());
+        List<Long> requestIds = itemRequestRepository.findIdsByRequesterId(id, Pageable.unpaged());
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id, Pageable.unpaged());
+        List<Long> answerIds = itemRepository.findIdsAnsweringRequesterId(id, Pageable.unpaged());
+        if (!answerIds.isEmpty()) {
+            itemRepository.clearRequestByIdIn(answerIds);
+        }
         userRepository.deleteById(id);
+        userCache.evict(id);
+        bookingCounter.evict(id);
+        itemCounter.evict(id);
+        bookerIds.forEach(bookingCounter::evict);
+        bookings.forEach(bookingIntervalIndex::remove);
+        itemRequestFeed.reset();
+        itemRequestMatcher.onRequestsDeleted(requestIds);
+        searchEngine.onDeleted(itemIds);
+    }
+
+    /**
+     * Помечает пользователя удаленным: он сразу перестает находиться через UserService,
+     * а его бронирования, отзывы, вещи и запросы удаляются пачками в фоне через UserPurger.
+     */
+    @Transactional
+    @Override
+    public void deleteAsync(Long id) {
+        getById(id);
+        UserDeletion deletion = userDeletionRepository.save(UserDeletion.builder()
+                .userId(id)
+                .requested(LocalDateTime.now())
+                .build());
+        userCache.evict(id);
+        itemRequestFeed.onRequesterDeleted(id);
+        userPurger.purgeAfterCommit(deletion);
     }
 }
@@ -0,0 +1,8 @@
+ALTER TABLE ITEMS ADD COLUMN IF NOT EXISTS SEARCH_VECTOR TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian', coalesce(NAME, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(NAME, '')), 'A') ||
+    setweight(to_tsvector('russian', coalesce(DESCRIPTION, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(DESCRIPTION, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_SEARCH_VECTOR ON ITEMS USING GIN (SEARCH_VECTOR);
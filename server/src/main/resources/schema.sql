@@ -3,6 +3,8 @@ DROP TABLE IF EXISTS ITEM_REQUESTS CASCADE;
 DROP TABLE IF EXISTS ITEMS CASCADE;
 DROP TABLE IF EXISTS BOOKINGS CASCADE;
 DROP TABLE IF EXISTS COMMENTS CASCADE;
+DROP TABLE IF EXISTS REQUEST_CANDIDATES CASCADE;
+DROP TABLE IF EXISTS USER_DELETIONS CASCADE;
 
 CREATE TABLE IF NOT EXISTS USERS (
     ID BIGINT generated BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
@@ -45,5 +47,26 @@ CREATE TABLE IF NOT EXISTS COMMENTS (
     CREATED TIMESTAMP WITHOUT TIME ZONE
 );
 
+CREATE TABLE IF NOT EXISTS REQUEST_CANDIDATES (
+    ID BIGINT generated BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    REQUEST_ID BIGINT REFERENCES ITEM_REQUESTS (ID) ON DELETE CASCADE NOT NULL,
+    ITEM_ID BIGINT REFERENCES ITEMS (ID) ON DELETE CASCADE NOT NULL,
+    SCORE DOUBLE PRECISION NOT NULL,
+    CONSTRAINT UNIQ_REQUEST_CANDIDATE UNIQUE (REQUEST_ID, ITEM_ID)
+);
 
+CREATE TABLE IF NOT EXISTS USER_DELETIONS (
+    USER_ID BIGINT REFERENCES USERS (ID) ON DELETE CASCADE NOT NULL PRIMARY KEY,
+    REQUESTED TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
 
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_ITEM_STATUS_DATES ON BOOKINGS (ITEM_ID, STATUS, START_DATE, END_DATE);
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_ITEM_START_ID ON BOOKINGS (ITEM_ID, START_DATE DESC, ID DESC);
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_ITEM_END ON BOOKINGS (ITEM_ID, END_DATE);
+CREATE INDEX IF NOT EXISTS IDX_ITEM_REQUESTS_CREATED_ID ON ITEM_REQUESTS (CREATED DESC, ID DESC, REQUESTER_ID);
+CREATE INDEX IF NOT EXISTS IDX_ITEM_REQUESTS_REQUESTER ON ITEM_REQUESTS (REQUESTER_ID, CREATED);
+CREATE INDEX IF NOT EXISTS IDX_BOOKINGS_BOOKER_START_ID ON BOOKINGS (BOOKER_ID, START_DATE DESC, ID DESC);
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_OWNER ON ITEMS (OWNER_ID);
+CREATE INDEX IF NOT EXISTS IDX_ITEMS_REQUEST ON ITEMS (REQUEST_ID);
+CREATE INDEX IF NOT EXISTS IDX_COMMENTS_AUTHOR ON COMMENTS (AUTHOR_ID);
+CREATE INDEX IF NOT EXISTS IDX_COMMENTS_ITEM ON COMMENTS (ITEM_ID);
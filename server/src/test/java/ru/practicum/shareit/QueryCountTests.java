@@ -0,0 +1,155 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.itemRequest.ItemRequestController;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestDto;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.itemRequest.service.ItemRequestMatcher;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class QueryCountTests {
+    private static final int ITEMS = 3;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ItemController itemController;
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private ItemRequestController itemRequestController;
+
+    @Autowired
+    private ItemRequestMatcher itemRequestMatcher;
+
+    private Statistics statistics;
+
+    private UserDto owner;
+
+    private UserDto booker;
+
+    private BookingResponseDto booking;
+
+    private ItemDto item;
+
+    @BeforeEach
+    void init() {
+        owner = userController.create(User.builder().name("owner").email("owner@email.com").build());
+        booker = userController.create(User.builder().name("booker").email("booker@email.com").build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            item = itemController.create(owner.getId(), ItemDto.builder()
+                    .name("name" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .build());
+            booking = bookingController.create(BookingRequestDto.builder()
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .itemId(item.getId())
+                    .build(), booker.getId());
+            bookingController.create(BookingRequestDto.builder()
+                    .start(now.plusDays(1))
+                    .end(now.plusDays(2))
+                    .itemId(item.getId())
+                    .build(), booker.getId());
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllByBookerQueryCount() {
+        assertEquals(ITEMS * 2, bookingController.getAllByBooker(booker.getId(), "ALL", 0, 10).getBody().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllByOwnerQueryCount() {
+        assertEquals(ITEMS * 2, bookingController.getAllByOwner(owner.getId(), "ALL", 0, 10).getBody().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getBookingByIdQueryCount() {
+        assertEquals(booking.getId(), bookingController.getById(booker.getId(), booking.getId()).getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findItemByIdQueryCount() {
+        ItemDto found = itemController.findById(item.getId(), owner.getId());
+        assertEquals(booking.getId(), found.getLastBooking().getId());
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllItemsQueryCount() {
+        assertEquals(ITEMS, itemController.findAll(owner.getId(), 0, 10).size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllRequestsQueryCount() throws Exception {
+        for (int i = 0; i < ITEMS; i++) {
+            ItemRequestResponseDto request = itemRequestController.create(booker.getId(), ItemRequestDto.builder()
+                    .description("request" + i)
+                    .build());
+            itemController.create(owner.getId(), ItemDto.builder()
+                    .name("answer" + i)
+                    .description("answer" + i)
+                    .available(true)
+                    .requestId(request.getId())
+                    .build());
+        }
+        awaitRequestMatcher();
+        statistics.clear();
+
+        List<ItemRequestResponseDto> requests = itemRequestController.getAll(0, 10, owner.getId());
+        assertEquals(ITEMS, requests.size());
+        requests.forEach(request -> assertEquals(1, request.getItems().size()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(ITEMS, itemRequestController.getAll(0, 10, owner.getId()).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Подбор вещей для запросов идет в фоновом потоке и делает свои запросы к базе,
+     * поэтому перед подсчетом нужно дождаться, пока он разберет очередь.
+     */
+    private void awaitRequestMatcher() throws Exception {
+        ((ExecutorService) ReflectionTestUtils.getField(itemRequestMatcher, "executor")).submit(() -> {
+        }).get();
+    }
+}
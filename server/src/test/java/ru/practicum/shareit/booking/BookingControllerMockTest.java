@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Status;
@@ -25,6 +26,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -125,6 +127,55 @@ public class BookingControllerMockTest {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDtoResponse))));
     }
 
+    @Test
+    void findAllByOwnerIdAfterCursorTest() throws Exception {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 11, 20, 10, 0), 5L);
+        when(bookingService.getAllByOwner(anyLong(), any(), any(BookingCursor.class), anyInt()))
+                .thenReturn(List.of(bookingDtoResponse));
+        mvc.perform(get("/bookings/owner")
+                        .param("after", cursor.encode())
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER,
+                        BookingCursor.of(bookingDtoResponse).encode()))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDtoResponse))));
+    }
+
+    @Test
+    void findAllByBookerFirstPageCursorTest() throws Exception {
+        when(bookingService.getAllByBooker(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingDtoResponse));
+        mvc.perform(get("/bookings")
+                        .param("from", "0")
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER,
+                        BookingCursor.of(bookingDtoResponse).encode()));
+        mvc.perform(get("/bookings")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void findAllByBookerWithBadCursorTest() throws Exception {
+        mvc.perform(get("/bookings")
+                        .param("after", "broken")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void findByIdTest() throws Exception {
         when(bookingService.getById(anyLong(), anyLong()))
@@ -16,6 +16,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -59,8 +60,8 @@ class BookingControllerTests {
                 .build();
 
         bookingRequestDto = BookingRequestDto.builder()
-                .start(LocalDateTime.of(2022, 10, 24, 12, 30))
-                .end(LocalDateTime.of(2023, 11, 10, 13, 0))
+                .start(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(1))
+                .end(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(30))
                 .itemId(1L).build();
     }
 
@@ -105,7 +106,7 @@ class BookingControllerTests {
         UserDto user = userController.create(UserMapper.toUser(userDto));
         ItemDto item = itemController.create(user.getId(), itemDto);
         UserDto user1 = userController.create(UserMapper.toUser(userDto1));
-        bookingRequestDto.setEnd(LocalDateTime.of(2022, 9, 24, 12, 30));
+        bookingRequestDto.setEnd(bookingRequestDto.getStart().minusDays(30));
         assertThrows(BookingIsNotAvailableException.class, () -> bookingController.create(bookingRequestDto, user1.getId()));
     }
 
@@ -139,19 +140,19 @@ class BookingControllerTests {
         ItemDto item = itemController.create(user.getId(), itemDto);
         UserDto user1 = userController.create(UserMapper.toUser(userDto1));
         BookingResponseDto booking = bookingController.create(bookingRequestDto, user1.getId());
-        assertEquals(1, bookingController.getAllByBooker(user1.getId(), "WAITING", 0, 10).size());
-        assertEquals(1, bookingController.getAllByBooker(user1.getId(), "ALL", 0, 10).size());
-        assertEquals(0, bookingController.getAllByBooker(user1.getId(), "PAST", 0, 10).size());
-        assertEquals(1, bookingController.getAllByBooker(user1.getId(), "CURRENT", 0, 10).size());
-        assertEquals(0, bookingController.getAllByBooker(user1.getId(), "FUTURE", 0, 10).size());
-        assertEquals(0, bookingController.getAllByBooker(user1.getId(), "REJECTED", 0, 10).size());
+        assertEquals(1, bookingController.getAllByBooker(user1.getId(), "WAITING", 0, 10).getBody().size());
+        assertEquals(1, bookingController.getAllByBooker(user1.getId(), "ALL", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByBooker(user1.getId(), "PAST", 0, 10).getBody().size());
+        assertEquals(1, bookingController.getAllByBooker(user1.getId(), "CURRENT", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByBooker(user1.getId(), "FUTURE", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByBooker(user1.getId(), "REJECTED", 0, 10).getBody().size());
         bookingController.approve(booking.getId(), user.getId(), true);
-        assertEquals(1, bookingController.getAllByOwner(user.getId(), "CURRENT", 0, 10).size());
-        assertEquals(1, bookingController.getAllByOwner(user.getId(), "ALL", 0, 10).size());
-        assertEquals(0, bookingController.getAllByOwner(user.getId(), "WAITING", 0, 10).size());
-        assertEquals(0, bookingController.getAllByOwner(user.getId(), "FUTURE", 0, 10).size());
-        assertEquals(0, bookingController.getAllByOwner(user.getId(), "REJECTED", 0, 10).size());
-        assertEquals(0, bookingController.getAllByOwner(user.getId(), "PAST", 0, 10).size());
+        assertEquals(1, bookingController.getAllByOwner(user.getId(), "CURRENT", 0, 10).getBody().size());
+        assertEquals(1, bookingController.getAllByOwner(user.getId(), "ALL", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByOwner(user.getId(), "WAITING", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByOwner(user.getId(), "FUTURE", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByOwner(user.getId(), "REJECTED", 0, 10).getBody().size());
+        assertEquals(0, bookingController.getAllByOwner(user.getId(), "PAST", 0, 10).getBody().size());
     }
 
     @Test
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingCounter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingCounterTest {
+    BookingRepository bookingRepository;
+    BookingCounter bookingCounter;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        when(bookingRepository.countByBookerIdGroupByStatus(anyLong()))
+                .thenReturn(List.<Object[]>of(new Object[]{Status.WAITING, 2L}, new Object[]{Status.APPROVED, 1L}));
+        bookingCounter = new BookingCounter(bookingRepository, 1);
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changesAreAppliedAfterCommitTest() {
+        assertEquals(3, bookingCounter.countByBooker(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookingCounter.onCreated(1L, Status.WAITING);
+        bookingCounter.onStatusChanged(1L, Status.WAITING, Status.REJECTED);
+        assertEquals(2, bookingCounter.countByBooker(1L, Status.WAITING));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(4, bookingCounter.countByBooker(1L));
+        assertEquals(2, bookingCounter.countByBooker(1L, Status.WAITING));
+        assertEquals(1, bookingCounter.countByBooker(1L, Status.REJECTED));
+        verify(bookingRepository, times(1)).countByBookerIdGroupByStatus(1L);
+    }
+
+    @Test
+    void rolledBackChangesAreIgnoredTest() {
+        assertEquals(3, bookingCounter.countByBooker(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookingCounter.onCreated(1L, Status.WAITING);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(3, bookingCounter.countByBooker(1L));
+    }
+
+    @Test
+    void countersLoadedDuringChangeAreReloadedTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        bookingCounter.onCreated(1L, Status.WAITING);
+        assertEquals(3, bookingCounter.countByBooker(1L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(3, bookingCounter.countByBooker(1L));
+        verify(bookingRepository, times(2)).countByBookerIdGroupByStatus(1L);
+    }
+
+    @Test
+    void sizeIsBoundedTest() {
+        bookingCounter.countByBooker(1L);
+        bookingCounter.countByBooker(2L);
+        bookingCounter.countByBooker(1L);
+
+        assertEquals(1, bookingCounter.size());
+        verify(bookingRepository, times(2)).countByBookerIdGroupByStatus(1L);
+    }
+}
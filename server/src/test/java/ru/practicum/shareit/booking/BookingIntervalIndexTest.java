@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    BookingRepository bookingRepository;
+    BookingIntervalIndex bookingIntervalIndex;
+    Booking booking;
+
+    @BeforeEach
+    void beforeEach() {
+        User user = new User(1L, "testName", "test@mail.com");
+        Item item = new Item(1L, "testName", "testDescription", true, user, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        booking = new Booking(1L, start, start.plusDays(1), item, new User(2L, "booker", "booker@mail.com"),
+                Status.WAITING);
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(anyLong(), any(), any()))
+                .thenReturn(List.of(booking));
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository, 1);
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void removeIsAppliedAfterCommitTest() {
+        assertTrue(bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookingIntervalIndex.remove(booking);
+        assertTrue(bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd()));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertFalse(bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void removeIsDroppedOnRollbackTest() {
+        assertTrue(bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookingIntervalIndex.remove(booking);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(
+                        TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertTrue(bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlapTest() {
+        assertFalse(bookingIntervalIndex.overlaps(1L, booking.getEnd(), booking.getEnd().plusDays(1)));
+        assertFalse(bookingIntervalIndex.overlaps(1L, booking.getStart().minusDays(1), booking.getStart()));
+    }
+
+    @Test
+    void sizeIsBoundedTest() {
+        bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd());
+        bookingIntervalIndex.overlaps(2L, booking.getStart(), booking.getEnd());
+
+        assertEquals(1, bookingIntervalIndex.size());
+    }
+
+    @Test
+    void scheduleWithUncommittedBookingIsNotEvictedTest() {
+        LocalDateTime start = booking.getEnd().plusDays(1);
+        Booking added = new Booking(2L, start, start.plusDays(1), booking.getItem(), booking.getBooker(),
+                Status.WAITING);
+
+        TransactionSynchronizationManager.initSynchronization();
+        bookingIntervalIndex.add(added);
+        bookingIntervalIndex.overlaps(2L, booking.getStart(), booking.getEnd());
+        assertEquals(2, bookingIntervalIndex.size());
+        assertTrue(bookingIntervalIndex.overlaps(1L, added.getStart(), added.getEnd()));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(
+                        TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        bookingIntervalIndex.overlaps(3L, booking.getStart(), booking.getEnd());
+        assertEquals(1, bookingIntervalIndex.size());
+    }
+
+    @Test
+    void removingOneBookingKeepsOtherReservationsTest() {
+        LocalDateTime start = booking.getEnd().plusDays(1);
+        Booking added = new Booking(2L, start, start.plusDays(1), booking.getItem(), booking.getBooker(),
+                Status.WAITING);
+        TransactionSynchronizationManager.initSynchronization();
+        bookingIntervalIndex.add(added);
+
+        bookingIntervalIndex.remove(booking);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertFalse(bookingIntervalIndex.overlaps(1L, booking.getStart(), booking.getEnd()));
+        assertTrue(bookingIntervalIndex.overlaps(1L, added.getStart(), added.getEnd()));
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.model.Booking;
@@ -14,6 +15,9 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -69,12 +73,87 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByItemIdOrderByStartAscTest() {
+    void findFirstLastAndNextByItemIdTest() {
         userRepository.save(user);
         itemRepository.save(item);
         userRepository.save(user2);
         bookingRepository.save(booking);
-        assertThat(bookingRepository.findAllByItemIdAndEndBeforeOrderByStartAsc(item.getId(), LocalDateTime.now()).size(), equalTo(1));
+        bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2022, 1, 10, 10, 30))
+                .end(LocalDateTime.of(2022, 2, 10, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(APPROVED)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        Booking next = bookingRepository.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .item(item)
+                .booker(user2)
+                .status(WAITING)
+                .build());
+
+        assertThat(bookingRepository.findFirstByItemIdAndStartBeforeOrderByEndDesc(item.getId(), now)
+                .map(Booking::getId).orElse(null), equalTo(booking.getId()));
+        assertThat(bookingRepository.findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), now)
+                .map(Booking::getId).orElse(null), equalTo(next.getId()));
+    }
+
+    @Test
+    void findLastAndNextByItemIdsTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        bookingRepository.save(booking);
+        Booking earlier = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2022, 1, 10, 10, 30))
+                .end(LocalDateTime.of(2022, 2, 10, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(APPROVED)
+                .build());
+        Booking next = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(WAITING)
+                .build());
+        List<Booking> bookings = bookingRepository.findLastAndNextByItemIds(List.of(item.getId()), LocalDateTime.now());
+        assertThat(bookings.size(), equalTo(2));
+        assertThat(bookings.stream().map(Booking::getId).collect(Collectors.toSet()),
+                equalTo(Set.of(earlier.getId(), next.getId())));
+    }
+
+    @Test
+    void findAllByBookerAfterTest() {
+        userRepository.save(user);
+        itemRepository.save(item);
+        userRepository.save(user2);
+        bookingRepository.save(booking);
+        Booking earlier = bookingRepository.save(Booking.builder()
+                .start(LocalDateTime.of(2022, 1, 10, 10, 30))
+                .end(LocalDateTime.of(2022, 2, 10, 10, 30))
+                .item(item)
+                .booker(user2)
+                .status(WAITING)
+                .build());
+        List<Booking> firstPage = bookingRepository.findAllByBookerAfter(user2.getId(), LocalDateTime.now(),
+                Long.MAX_VALUE, PageRequest.of(0, 1));
+        assertThat(firstPage.get(0).getId(), equalTo(booking.getId()));
+        List<Booking> secondPage = bookingRepository.findAllByBookerAfter(user2.getId(), firstPage.get(0).getStart(),
+                firstPage.get(0).getId(), PageRequest.of(0, 1));
+        assertThat(secondPage.get(0).getId(), equalTo(earlier.getId()));
+        assertThat(bookingRepository.findAllByOwnerAndStatusAfter(user.getId(), WAITING, earlier.getStart(),
+                earlier.getId(), PageRequest.of(0, 1)).size(), equalTo(0));
     }
 
     @Test
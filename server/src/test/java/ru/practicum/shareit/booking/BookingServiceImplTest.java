@@ -8,6 +8,8 @@ import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingCounter;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exceptions.BookingIsNotAvailableException;
@@ -18,6 +20,8 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 class BookingServiceImplTest {
@@ -34,7 +38,9 @@ class BookingServiceImplTest {
         bookingService = new BookingServiceImpl(
                 bookingRepository,
                 userService,
-                itemRepository
+                itemRepository,
+                new BookingCounter(bookingRepository, 100),
+                new BookingIntervalIndex(bookingRepository, 100)
         );
     }
 
@@ -114,4 +120,101 @@ class BookingServiceImplTest {
 
         Assertions.assertNotNull(exception.getParameter());
     }
-}
\ No newline at end of file
+
+    @Test
+    void countByBookerUsesCachedCounters() {
+        User user = new User(1L, "testName", "test@mail.com");
+        User user2 = new User(2L, "testName2", "testEmail2@mail.com");
+        Item item = new Item(1L, "testName", "testDescription", true, user, null);
+        Booking booking = new Booking(1L, null, null, item, user2, Status.WAITING);
+
+        Mockito.when(bookingRepository.countByBookerIdGroupByStatus(Mockito.anyLong()))
+                .thenReturn(List.<Object[]>of(new Object[]{Status.WAITING, 2L}, new Object[]{Status.APPROVED, 1L}));
+
+        Mockito.when(bookingRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(booking));
+
+        Mockito.when(bookingRepository.save(Mockito.any(Booking.class)))
+                .thenReturn(booking);
+
+        Assertions.assertEquals(3L, bookingService.countByBooker(user2.getId(), "ALL"));
+        bookingService.approve(booking.getId(), user.getId(), false);
+
+        Assertions.assertEquals(1L, bookingService.countByBooker(user2.getId(), "WAITING"));
+        Assertions.assertEquals(1L, bookingService.countByBooker(user2.getId(), "REJECTED"));
+        Assertions.assertEquals(3L, bookingService.countByBooker(user2.getId(), "ALL"));
+        Mockito.verify(bookingRepository, Mockito.times(1)).countByBookerIdGroupByStatus(user2.getId());
+    }
+
+    @Test
+    void createTestWithOverlappingBooking() {
+        User user = new User(1L, "testName", "test@mail.com");
+        User user2 = new User(2L, "testName2", "testEmail2@mail.com");
+        Item item = new Item(1L, "testName", "testDescription", true, user, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking existing = new Booking(1L, start, start.plusDays(2), item, user, Status.APPROVED);
+        BookingRequestDto bookingRequestDto = BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .build();
+
+        Mockito.when(userService.getById(Mockito.anyLong()))
+                .thenReturn(UserMapper.toUserDto(user2));
+
+        Mockito.when(itemRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(item));
+
+        Mockito.when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(Mockito.anyLong(), Mockito.anyCollection(),
+                        Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(existing));
+
+        BookingIsNotAvailableException exception = Assertions.assertThrows(BookingIsNotAvailableException.class,
+                () -> bookingService.create(bookingRequestDto, user2.getId()));
+
+        Assertions.assertNotNull(exception.getParameter());
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void createTestAfterRejectedBookingFreesInterval() {
+        User user = new User(1L, "testName", "test@mail.com");
+        User user2 = new User(2L, "testName2", "testEmail2@mail.com");
+        Item item = new Item(1L, "testName", "testDescription", true, user, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking existing = new Booking(1L, start, start.plusDays(2), item, user2, Status.WAITING);
+        BookingRequestDto bookingRequestDto = BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+
+        Mockito.when(userService.getById(Mockito.anyLong()))
+                .thenReturn(UserMapper.toUserDto(user2));
+
+        Mockito.when(itemRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(item));
+
+        Mockito.when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(Mockito.anyLong(), Mockito.anyCollection(),
+                        Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(existing));
+
+        Mockito.when(bookingRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(existing));
+
+        Mockito.when(bookingRepository.save(Mockito.any(Booking.class)))
+                .thenAnswer(invocation -> {
+                    Booking booking = invocation.getArgument(0);
+                    if (booking.getId() == null) {
+                        booking.setId(2L);
+                    }
+                    return booking;
+                });
+
+        Assertions.assertThrows(BookingIsNotAvailableException.class,
+                () -> bookingService.create(bookingRequestDto, user2.getId()));
+        bookingService.approve(existing.getId(), user.getId(), false);
+
+        Assertions.assertEquals(2L, bookingService.create(bookingRequestDto, user2.getId()).getId());
+    }
+}
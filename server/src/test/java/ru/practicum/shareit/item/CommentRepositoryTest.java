@@ -69,6 +69,16 @@ class CommentRepositoryTest {
         Assertions.assertEquals(1, results.size());
     }
 
+    @Test
+    void findAllByItemIdInTest() {
+        commentRepository.save(new Comment(null, "text2", item2, user2, LocalDateTime.now()));
+
+        List<Comment> results = commentRepository.findAllByItemIdIn(List.of(item1.getId(), item2.getId()));
+
+        Assertions.assertNotNull(results);
+        Assertions.assertEquals(2, results.size());
+    }
+
     @AfterEach
     void afterEach() {
         commentRepository.deleteAll();
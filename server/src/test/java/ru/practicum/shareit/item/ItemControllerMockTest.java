@@ -20,6 +20,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -66,6 +67,23 @@ class ItemControllerMockTest {
         Mockito.verify(itemService).search(text, 0, 10);
     }
 
+    @SneakyThrows
+    @Test
+    void getAllByTextInWindow_thenReturnOk() {
+        String text = "drill";
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .param("text", text)
+                        .param("start", start.toString())
+                        .param("end", end.toString()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Mockito.verify(itemService).search(text, start, end, 0, 10);
+        Mockito.verify(itemService, Mockito.never()).search(text, 0, 10);
+    }
+
     @SneakyThrows
     @Test
     void create_allCorrect_thenReturnOk() {
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemCounter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemCounterTest {
+    ItemRepository itemRepository;
+    ItemCounter itemCounter;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository = Mockito.mock(ItemRepository.class);
+        when(itemRepository.countByOwnerId(anyLong())).thenReturn(3L);
+        itemCounter = new ItemCounter(itemRepository, 1);
+    }
+
+    @AfterEach
+    void afterEach() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void createdIsCountedAfterCommitTest() {
+        assertEquals(3, itemCounter.countByOwner(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        itemCounter.onCreated(1L);
+        assertEquals(3, itemCounter.countByOwner(1L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(4, itemCounter.countByOwner(1L));
+        verify(itemRepository, times(1)).countByOwnerId(1L);
+    }
+
+    @Test
+    void rolledBackCreateIsIgnoredTest() {
+        assertEquals(3, itemCounter.countByOwner(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        itemCounter.onCreated(1L);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(3, itemCounter.countByOwner(1L));
+    }
+
+    @Test
+    void counterLoadedDuringCreateIsReloadedTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        itemCounter.onCreated(1L);
+        assertEquals(3, itemCounter.countByOwner(1L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(3, itemCounter.countByOwner(1L));
+        verify(itemRepository, times(2)).countByOwnerId(1L);
+    }
+
+    @Test
+    void sizeIsBoundedTest() {
+        itemCounter.countByOwner(1L);
+        itemCounter.countByOwner(2L);
+        itemCounter.countByOwner(1L);
+
+        assertEquals(1, itemCounter.size());
+        verify(itemRepository, times(2)).countByOwnerId(1L);
+    }
+}
@@ -7,6 +7,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
@@ -15,7 +18,9 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -29,6 +34,9 @@ class ItemRepositoryTest {
     @Autowired
     ItemRequestRepository itemRequestRepository;
 
+    @Autowired
+    BookingRepository bookingRepository;
+
     User user1;
     User user2;
     Item item1;
@@ -64,7 +72,7 @@ class ItemRepositoryTest {
 
     @Test
     void searchTest() {
-        List<Item> results = itemRepository.search("wow", PageRequest.of(0, 10)).toList();
+        List<Item> results = itemRepository.searchRanked("wow", PageRequest.of(0, 10)).toList();
 
         Assertions.assertNotNull(results);
         Assertions.assertEquals(2, results.size());
@@ -72,12 +80,35 @@ class ItemRepositoryTest {
 
     @Test
     void searchTestWithNoItemsForKeyword() {
-        List<Item> results = itemRepository.search("testy", PageRequest.of(0, 10)).toList();
+        List<Item> results = itemRepository.searchRanked("testy", PageRequest.of(0, 10)).toList();
 
         Assertions.assertNotNull(results);
         Assertions.assertEquals(0, results.size());
     }
 
+    @Test
+    void searchRankedTest() {
+        List<Item> results = itemRepository.searchRanked("wow", PageRequest.of(0, 10)).toList();
+
+        Assertions.assertEquals(List.of(item3.getId(), item1.getId()),
+                results.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findIdsFreeBetweenTest() {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(5);
+        bookingRepository.save(new Booking(null, start.minusDays(1), start.plusDays(1), item1, user2,
+                Status.APPROVED));
+        bookingRepository.save(new Booking(null, start, start.plusDays(1), item3, user1, Status.REJECTED));
+
+        List<Long> ids = List.of(item1.getId(), item3.getId());
+
+        Assertions.assertEquals(List.of(item3.getId()), itemRepository.findIdsFreeBetween(ids, start,
+                start.plusDays(2)));
+        Assertions.assertEquals(2, itemRepository.findIdsFreeBetween(ids, start.plusDays(1), start.plusDays(2))
+                .size());
+    }
+
     @Test
     void findAllByOwnerIdOrderByIdAscTest() {
         List<Item> results = itemRepository.findAllByOwnerIdOrderByIdAsc(user2.getId(), PageRequest.of(0, 10))
@@ -87,6 +118,11 @@ class ItemRepositoryTest {
         Assertions.assertEquals(2, results.size());
     }
 
+    @Test
+    void countByOwnerIdTest() {
+        Assertions.assertEquals(2L, itemRepository.countByOwnerId(user2.getId()));
+    }
+
     @Test
     void findAllByRequestIdTest() {
         List<Item> results = itemRepository.findAllByRequestId(request1.getId());
@@ -95,8 +131,17 @@ class ItemRepositoryTest {
         Assertions.assertEquals(1, results.size());
     }
 
+    @Test
+    void findAllByRequestIdInTest() {
+        List<Item> results = itemRepository.findAllByRequestIdIn(List.of(request1.getId(), request3.getId()));
+
+        Assertions.assertEquals(List.of(item1.getId(), item3.getId()),
+                results.stream().map(Item::getId).sorted().collect(Collectors.toList()));
+    }
+
     @AfterEach
     void afterEach() {
+        bookingRepository.deleteAll();
         itemRepository.deleteAll();
         userRepository.deleteAll();
     }
@@ -1,11 +1,15 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
@@ -20,18 +24,31 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.FullTextItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemCounter;
+import ru.practicum.shareit.item.service.ItemSearchCache;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.LikeItemSearchEngine;
+import ru.practicum.shareit.item.service.NgramItemSearchEngine;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.service.ItemRequestFeed;
+import ru.practicum.shareit.itemRequest.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class ItemServiceImplTest {
 
@@ -41,6 +58,8 @@ class ItemServiceImplTest {
     BookingRepository bookingRepository;
     CommentRepository commentRepository;
     ItemRequestRepository itemRequestRepository;
+    ItemSearchCache searchCache;
+    MeterRegistry meterRegistry;
 
     @BeforeEach
     void beforeEach() {
@@ -49,12 +68,19 @@ class ItemServiceImplTest {
         bookingRepository = Mockito.mock(BookingRepository.class);
         commentRepository = Mockito.mock(CommentRepository.class);
         itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        searchCache = new ItemSearchCache(2, Duration.ofMinutes(1), meterRegistry);
         itemService = new ItemServiceImpl(
                 itemRepository,
                 userService,
                 bookingRepository,
                 commentRepository,
-                itemRequestRepository
+                itemRequestRepository,
+                new ItemCounter(itemRepository, 100),
+                new LikeItemSearchEngine(itemRepository),
+                searchCache,
+                new ItemRequestFeed(itemRequestRepository, itemRepository, 10),
+                Mockito.mock(ItemRequestMatcher.class)
         );
     }
 
@@ -71,6 +97,179 @@ class ItemServiceImplTest {
         Assertions.assertEquals(0, results.size());
     }
 
+    @Test
+    void searchTestUsesRankedQuery() {
+        User user = new User(1L, "testName", "test@mail.com");
+        Item item = new Item(1L, "Дрель", "testDescription", true, user, null);
+
+        Mockito.when(itemRepository.searchRanked(Mockito.anyString(), Mockito.any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(item)));
+
+        List<ItemDto> results = itemService.search("ДРЕЛЬ", 0, 10);
+
+        Assertions.assertEquals(List.of(ItemMapper.toItemDto(item)), results);
+        Mockito.verify(itemRepository).searchRanked(Mockito.eq("дрель"), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    void searchCacheTestEvictsOnlyAffectedQueries() {
+        User user = new User(1L, "testName", "test@mail.com");
+        Item item = new Item(1L, "Дрель", "testDescription", true, user, null);
+
+        Mockito.when(itemRepository.searchRanked(Mockito.anyString(), Mockito.any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(item)));
+        Mockito.when(userService.getById(Mockito.anyLong()))
+                .thenReturn(UserMapper.toUserDto(user));
+        Mockito.when(itemRepository.findById(Mockito.anyLong()))
+                .thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.save(Mockito.any(Item.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        itemService.search("Дрель", 0, 10);
+        itemService.search("дрель", 0, 10);
+        itemService.search("палатка", 0, 10);
+        Mockito.verify(itemRepository, Mockito.times(2)).searchRanked(Mockito.anyString(),
+                Mockito.any(Pageable.class));
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+
+        itemService.update(ItemDto.builder().description("newDescription").build(), item.getId(), user.getId());
+        Assertions.assertEquals(1, searchCache.size());
+
+        itemService.search("палатка", 0, 10);
+        itemService.search("велосипед", 0, 10);
+        itemService.search("дрель", 0, 10);
+        Assertions.assertEquals(2, searchCache.size());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.evictions").counter().count());
+    }
+
+    @Test
+    void searchCacheTestSkipsResultsLoadedDuringInvalidation() {
+        ItemDto item = ItemDto.builder().id(1L).name("Дрель").description("старое описание").available(true).build();
+
+        searchCache.get("дрель", 0, 10, () -> {
+            searchCache.invalidate(text -> true);
+            return List.of(item);
+        });
+        Assertions.assertEquals(0, searchCache.size());
+
+        searchCache.get("дрель", 0, 10, () -> List.of(item));
+        Assertions.assertEquals(1, searchCache.size());
+    }
+
+    @Test
+    void fullTextSearchTestBuildsPrefixQuery() {
+        FullTextItemSearchEngine engine = new FullTextItemSearchEngine(itemRepository);
+
+        engine.search("дрель, Makita-2000", Pageable.ofSize(10));
+        Assertions.assertTrue(engine.search("!?", Pageable.ofSize(10)).isEmpty());
+
+        Mockito.verify(itemRepository).fullTextSearch(Mockito.eq("дрель:* & makita:* & 2000:*"),
+                Mockito.any(Pageable.class));
+        Mockito.verify(itemRepository, Mockito.times(1)).fullTextSearch(Mockito.anyString(),
+                Mockito.any(Pageable.class));
+    }
+
+    @Test
+    void ngramSearchTestFindsSubstringsAndFollowsUpdates() {
+        User user = new User(1L, "testName", "test@mail.com");
+        Item drill = new Item(1L, "Дрель ударная", "мощная", true, user, null);
+        Item saw = new Item(2L, "Пила", "как дрель, только пила", true, user, null);
+        Item hidden = new Item(3L, "Дрель", "сломана", false, user, null);
+        NgramItemSearchEngine engine = new NgramItemSearchEngine(itemRepository, Mockito.mock(EntityManager.class));
+
+        Mockito.when(itemRepository.streamAll())
+                .thenReturn(Stream.of(drill, saw, hidden));
+        Mockito.when(itemRepository.findAllById(Mockito.anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<Long> ids = new ArrayList<>();
+                    invocation.<Iterable<Long>>getArgument(0).forEach(ids::add);
+                    return Stream.of(drill, saw, hidden)
+                            .filter(item -> ids.contains(item.getId()))
+                            .collect(Collectors.toList());
+                });
+
+        engine.build();
+
+        Assertions.assertEquals(List.of(drill, saw), engine.search("дрел", Pageable.ofSize(10)).getContent());
+        Assertions.assertEquals(List.of(saw), engine.search("дрел", PageRequest.of(1, 1)).getContent());
+        Assertions.assertTrue(engine.search("ударная пила", Pageable.ofSize(10)).isEmpty());
+
+        drill.setAvailable(false);
+        engine.onSaved(drill);
+        hidden.setAvailable(true);
+        engine.onSaved(hidden);
+
+        Assertions.assertEquals(List.of(hidden, saw), engine.search("дрел", Pageable.ofSize(10)).getContent());
+        Mockito.verify(itemRepository, Mockito.never()).searchRanked(Mockito.anyString(), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    void ngramBuildTestKeepsItemsSavedDuringBuild() {
+        User user = new User(1L, "testName", "test@mail.com");
+        Item saw = new Item(2L, "Пила", "как дрель, только пила", true, user, null);
+        Item staleDrill = new Item(1L, "Дрель", "мощная", true, user, null);
+        Item hammer = new Item(1L, "Молоток", "мощный", true, user, null);
+        NgramItemSearchEngine engine = new NgramItemSearchEngine(itemRepository, Mockito.mock(EntityManager.class));
+
+        Mockito.when(itemRepository.streamAll())
+                .thenReturn(Stream.of(saw, staleDrill).peek(item -> {
+                    if (item == saw) {
+                        engine.onSaved(hammer);
+                    }
+                }));
+        Mockito.when(itemRepository.findAllById(Mockito.anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<Long> ids = new ArrayList<>();
+                    invocation.<Iterable<Long>>getArgument(0).forEach(ids::add);
+                    return Stream.of(hammer, saw)
+                            .filter(item -> ids.contains(item.getId()))
+                            .collect(Collectors.toList());
+                });
+
+        engine.build();
+
+        Assertions.assertEquals(List.of(hammer), engine.search("молот", Pageable.ofSize(10)).getContent());
+        Assertions.assertEquals(List.of(saw), engine.search("дрел", Pageable.ofSize(10)).getContent());
+    }
+
+    @Test
+    void searchInWindowTestWithInvalidInterval() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        Assertions.assertThrows(BadRequestException.class,
+                () -> itemService.search("drill", start, start.minusHours(1), 0, 10));
+        Mockito.verify(itemRepository, Mockito.never()).searchRanked(Mockito.anyString(), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    void searchInWindowTestSkipsBookedCandidatesAcrossBatches() {
+        User user = new User(1L, "testName", "test@mail.com");
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 150; id++) {
+            items.add(new Item(id, "Дрель " + id, "testDescription", true, user, null));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Mockito.when(itemRepository.searchRanked(Mockito.anyString(), Mockito.any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(1);
+                    int from = (int) pageable.getOffset();
+                    int to = Math.min(from + pageable.getPageSize(), items.size());
+                    return new SliceImpl<>(items.subList(from, to), pageable, to < items.size());
+                });
+        Mockito.when(itemRepository.findIdsFreeBetween(Mockito.anyCollection(), Mockito.eq(start),
+                        Mockito.eq(start.plusDays(1))))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(id -> id % 2 == 0)
+                        .collect(Collectors.toList()));
+
+        List<ItemDto> results = itemService.search("дрель", start, start.plusDays(1), 50, 10);
+
+        Assertions.assertEquals(List.of(102L, 104L, 106L, 108L, 110L, 112L, 114L, 116L, 118L, 120L),
+                results.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        Mockito.verify(itemRepository, Mockito.times(2)).searchRanked(Mockito.eq("дрель"),
+                Mockito.any(Pageable.class));
+    }
+
     @Test
     void saveTest() {
         User user = new User(1L, "testName", "test@mail.com");
@@ -277,8 +476,8 @@ class ItemServiceImplTest {
         BookingShortDto bookingShortDtoNext = BookingShortDto.builder()
                 .bookerId(user2.getId())
                 .itemId(item.getId())
-                .start(LocalDateTime.of(2023, 6, 29, 18, 0))
-                .end(LocalDateTime.of(2023, 6, 29, 19, 0))
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
                 .build();
         ItemDto itemDto = ItemMapper.toItemDto(item);
         itemDto.setLastBooking(bookingShortDtoLast);
@@ -288,18 +487,48 @@ class ItemServiceImplTest {
         Mockito.when(itemRepository.findAllByOwnerIdOrderByIdAsc(Mockito.anyLong(), Mockito.any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(ItemMapper.toItem(itemDto))));
 
-        Mockito.when(commentRepository.findAllByItemId(Mockito.anyLong()))
+        Mockito.when(commentRepository.findAllByItemIdIn(Mockito.anyCollection()))
                 .thenReturn(Collections.emptyList());
 
-        Mockito.when(bookingRepository.findAllByItemIdAndEndBeforeOrderByStartAsc(Mockito.anyLong(), Mockito.any(LocalDateTime.class)))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingShortDtoLast, item, user2)));
-
-        Mockito.when(bookingRepository.findAllByItemIdAndStartAfterOrderByStartAsc(Mockito.anyLong(), Mockito.any(LocalDateTime.class)))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingShortDtoNext, item, user2)));
+        Mockito.when(bookingRepository.findLastAndNextByItemIds(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(BookingMapper.toBooking(bookingShortDtoLast, item, user2),
+                        BookingMapper.toBooking(bookingShortDtoNext, item, user2)));
 
         List<ItemDto> itemDtos = itemService.findAll(user.getId(), 0, 10);
 
         Assertions.assertEquals(itemDto, itemDtos.get(0));
+        Mockito.verify(commentRepository, Mockito.times(1)).findAllByItemIdIn(Mockito.anyCollection());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextByItemIds(Mockito.anyCollection(), Mockito.any(LocalDateTime.class));
+    }
+
+    @Test
+    void findAllTestGroupsCommentsAndBookingsByItem() {
+        User user = new User(1L, "testName", "test@mail.com");
+        User user2 = new User(2L, "testName2", "test@mail.com2");
+        Item item = new Item(1L, "testName", "testDescription", true, user, null);
+        Item item2 = new Item(2L, "testName2", "testDescription2", true, user, null);
+        Comment comment = new Comment(1L, "text", item2, user2, LocalDateTime.now());
+        Booking lastBooking = new Booking(1L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                item2, user2, Status.APPROVED);
+
+        Mockito.when(itemRepository.findAllByOwnerIdOrderByIdAsc(Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(item, item2)));
+
+        Mockito.when(commentRepository.findAllByItemIdIn(Mockito.anyCollection()))
+                .thenReturn(List.of(comment));
+
+        Mockito.when(bookingRepository.findLastAndNextByItemIds(Mockito.anyCollection(), Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking));
+
+        List<ItemDto> itemDtos = itemService.findAll(user.getId(), 0, 10);
+
+        Assertions.assertEquals(2, itemDtos.size());
+        Assertions.assertEquals(0, itemDtos.get(0).getComments().size());
+        Assertions.assertNull(itemDtos.get(0).getLastBooking());
+        Assertions.assertEquals(1, itemDtos.get(1).getComments().size());
+        Assertions.assertEquals(lastBooking.getId(), itemDtos.get(1).getLastBooking().getId());
+        Assertions.assertNull(itemDtos.get(1).getNextBooking());
     }
 
     @Test
@@ -347,5 +576,25 @@ class ItemServiceImplTest {
 
         Assertions.assertNotNull(exception.getParameter());
     }
-}
 
+    @Test
+    void countByOwnerIsIncrementedOnCreate() {
+        User user = new User(1L, "testName", "test@mail.com");
+        Item item = new Item(1L, "testName", "testDescription", true, user, null);
+
+        Mockito.when(itemRepository.countByOwnerId(Mockito.anyLong()))
+                .thenReturn(2L);
+
+        Mockito.when(userService.getById(Mockito.anyLong()))
+                .thenReturn(UserMapper.toUserDto(user));
+
+        Mockito.when(itemRepository.save(Mockito.any(Item.class)))
+                .thenReturn(item);
+
+        Assertions.assertEquals(2L, itemService.countByOwner(user.getId()));
+        itemService.create(ItemMapper.toItemDto(item), user.getId());
+
+        Assertions.assertEquals(3L, itemService.countByOwner(user.getId()));
+        Mockito.verify(itemRepository, Mockito.times(1)).countByOwnerId(user.getId());
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FullTextItemSearchEngineTest {
+
+    @Test
+    void toTsQueryJoinsPrefixesTest() {
+        assertEquals("дрель:* & ударная:*", FullTextItemSearchEngine.toTsQuery("Дрель  Ударная"));
+        assertEquals("drill2000:*", FullTextItemSearchEngine.toTsQuery("Drill2000"));
+    }
+
+    @Test
+    void toTsQueryDropsOperatorsAndQuotesTest() {
+        assertEquals("a:* & b:* & c:*", FullTextItemSearchEngine.toTsQuery("a&b | !c:*"));
+        assertEquals("x:* & drop:* & table:* & items:*",
+                FullTextItemSearchEngine.toTsQuery("x'); drop table items; --"));
+        assertEquals("snake:* & case:*", FullTextItemSearchEngine.toTsQuery("snake_case"));
+    }
+
+    @Test
+    void toTsQueryWithoutWordsIsEmptyTest() {
+        assertEquals("", FullTextItemSearchEngine.toTsQuery(""));
+        assertEquals("", FullTextItemSearchEngine.toTsQuery(" !!! ( ) <-> "));
+    }
+
+    @Test
+    void matchesKeepsItemsWithSameWordStartsTest() {
+        FullTextItemSearchEngine engine = new FullTextItemSearchEngine(null);
+
+        assertTrue(engine.matches("дрели", "Дрель ударная", "мощная"));
+        assertTrue(engine.matches("ударн дрел", "Дрель", "ударная, мощная"));
+        assertFalse(engine.matches("пила", "Дрель ударная", "мощная"));
+        assertFalse(engine.matches("дрель пила", "Дрель ударная", "мощная"));
+    }
+}
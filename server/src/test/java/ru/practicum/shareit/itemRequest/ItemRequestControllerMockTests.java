@@ -8,10 +8,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestCursor;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.itemRequest.service.ItemRequestService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -19,6 +21,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
@@ -95,4 +98,32 @@ class ItemRequestControllerMockTests {
                 .andExpect(status().isOk())
                 .andExpect(content().json(mapper.writeValueAsString(itemRequestDto)));
     }
+
+    @Test
+    void getAllAfterCursorTest() throws Exception {
+        itemRequestDto.setCreated(LocalDateTime.of(2023, 5, 1, 12, 0));
+        ItemRequestCursor cursor = new ItemRequestCursor(LocalDateTime.of(2023, 5, 2, 12, 0), 7L);
+        when(itemRequestService.getAll(any(ItemRequestCursor.class), anyInt(), anyLong()))
+                .thenReturn(List.of(itemRequestDto));
+        mvc.perform(get("/requests/all")
+                        .param("after", cursor.encode())
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 2L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ItemRequestController.NEXT_CURSOR_HEADER,
+                        ItemRequestCursor.of(itemRequestDto).encode()))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(itemRequestDto))));
+    }
+
+    @Test
+    void getAllWithBadCursorTest() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .param("after", "broken")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 2L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
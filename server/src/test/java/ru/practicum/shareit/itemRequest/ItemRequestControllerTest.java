@@ -7,13 +7,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestDto;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.dto.UserDeletionProgress;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.service.UserPurger;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -25,6 +32,12 @@ class ItemRequestControllerTest {
     @Autowired
     private UserController userController;
 
+    @Autowired
+    private ItemController itemController;
+
+    @Autowired
+    private UserPurger userPurger;
+
     private ItemRequestDto itemRequestDto;
 
     private UserDto userDto;
@@ -76,6 +89,148 @@ class ItemRequestControllerTest {
         assertEquals(1, itemRequestController.getAll(0, 10, user2.getId()).size());
     }
 
+    @Test
+    void getAllFollowsNewRequestsAndAnswers() {
+        UserDto user = userController.create(UserMapper.toUser(userDto));
+        UserDto user2 = userController.create(UserMapper.toUser(userDto.toBuilder().email("user1@email.com").build()));
+        itemRequestController.create(user.getId(), itemRequestDto);
+        assertEquals(1, itemRequestController.getAll(0, 10, user2.getId()).size());
+
+        ItemRequestResponseDto newest = itemRequestController.create(user.getId(), ItemRequestDto.builder()
+                .description("newest request")
+                .build());
+        itemRequestController.create(user2.getId(), itemRequestDto);
+        itemController.create(user2.getId(), ItemDto.builder()
+                .name("answer")
+                .description("answer description")
+                .available(true)
+                .requestId(newest.getId())
+                .build());
+
+        List<ItemRequestResponseDto> requests = itemRequestController.getAll(0, 10, user2.getId());
+        assertEquals(2, requests.size());
+        assertEquals(newest.getId(), requests.get(0).getId());
+        assertEquals(1, requests.get(0).getItems().size());
+        assertEquals(1, itemRequestController.getAll(1, 1, user2.getId()).size());
+    }
+
+    @Test
+    void getCandidatesMatchesExistingAndNewItems() throws InterruptedException {
+        UserDto user = userController.create(UserMapper.toUser(userDto));
+        UserDto owner = userController.create(UserMapper.toUser(userDto.toBuilder().email("owner@email.com").build()));
+        ItemDto drill = itemController.create(owner.getId(), ItemDto.builder()
+                .name("Дрель ударная")
+                .description("Мощная дрель")
+                .available(true)
+                .build());
+        itemController.create(owner.getId(), ItemDto.builder()
+                .name("Палатка")
+                .description("Двухместная")
+                .available(true)
+                .build());
+
+        ItemRequestResponseDto request = itemRequestController.create(user.getId(), ItemRequestDto.builder()
+                .description("Нужна дрель на выходные")
+                .build());
+        List<ItemDto> candidates = awaitCandidates(request.getId(), user.getId(), 1);
+        assertEquals(drill.getId(), candidates.get(0).getId());
+
+        ItemDto compactDrill = itemController.create(owner.getId(), ItemDto.builder()
+                .name("Компактная дрель")
+                .description("Аккумуляторная")
+                .available(true)
+                .build());
+        candidates = awaitCandidates(request.getId(), user.getId(), 2);
+        assertEquals(List.of(drill.getId(), compactDrill.getId()),
+                List.of(candidates.get(0).getId(), candidates.get(1).getId()));
+    }
+
+    @Test
+    void getCandidatesSkipsRequestsOfDeletedUsers() throws InterruptedException {
+        UserDto deleted = userController.create(UserMapper.toUser(userDto));
+        UserDto user = userController.create(UserMapper.toUser(userDto.toBuilder().email("other@email.com").build()));
+        UserDto owner = userController.create(UserMapper.toUser(userDto.toBuilder().email("owner@email.com").build()));
+        itemController.create(owner.getId(), ItemDto.builder()
+                .name("Палатка")
+                .description("Двухместная")
+                .available(true)
+                .build());
+        itemRequestController.create(deleted.getId(), ItemRequestDto.builder()
+                .description("Нужна дрель на выходные")
+                .build());
+        ItemRequestResponseDto request = itemRequestController.create(user.getId(), ItemRequestDto.builder()
+                .description("Ищу дрель")
+                .build());
+        userController.delete(deleted.getId());
+
+        ItemDto drill = itemController.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .build());
+        assertEquals(drill.getId(), awaitCandidates(request.getId(), user.getId(), 1).get(0).getId());
+    }
+
+    @Test
+    void deleteRequesterKeepsAnsweringItems() {
+        UserDto requester = userController.create(UserMapper.toUser(userDto));
+        UserDto owner = userController.create(UserMapper.toUser(userDto.toBuilder().email("owner@email.com").build()));
+        ItemRequestResponseDto request = itemRequestController.create(requester.getId(), itemRequestDto);
+        ItemDto answer = itemController.create(owner.getId(), ItemDto.builder()
+                .name("answer")
+                .description("answer description")
+                .available(true)
+                .requestId(request.getId())
+                .build());
+
+        userController.delete(requester.getId());
+
+        ItemDto kept = itemController.findById(answer.getId(), owner.getId());
+        assertEquals(answer.getId(), kept.getId());
+        assertNull(kept.getRequestId());
+    }
+
+    @Test
+    void purgeRequesterKeepsAnsweringItems() throws InterruptedException {
+        UserDto requester = userController.create(UserMapper.toUser(userDto));
+        UserDto owner = userController.create(UserMapper.toUser(userDto.toBuilder().email("owner@email.com").build()));
+        ItemRequestResponseDto request = itemRequestController.create(requester.getId(), itemRequestDto);
+        ItemDto answer = itemController.create(owner.getId(), ItemDto.builder()
+                .name("answer")
+                .description("answer description")
+                .available(true)
+                .requestId(request.getId())
+                .build());
+
+        userController.deleteAsync(requester.getId());
+        UserDeletionProgress.Stage stage = null;
+        for (int i = 0; i < 50 && stage != UserDeletionProgress.Stage.DONE; i++) {
+            Thread.sleep(100);
+            stage = userPurger.getProgress(requester.getId()).map(UserDeletionProgress::getStage).orElse(null);
+        }
+        assertEquals(UserDeletionProgress.Stage.DONE, stage);
+
+        ItemDto kept = itemController.findById(answer.getId(), owner.getId());
+        assertEquals(answer.getId(), kept.getId());
+        assertNull(kept.getRequestId());
+    }
+
+    @Test
+    void getCandidatesForWrongRequest() {
+        UserDto user = userController.create(UserMapper.toUser(userDto));
+        assertThrows(DataNotFoundException.class, () -> itemRequestController.getCandidates(1L, user.getId()));
+    }
+
+    private List<ItemDto> awaitCandidates(Long requestId, Long userId, int count) throws InterruptedException {
+        List<ItemDto> candidates = itemRequestController.getCandidates(requestId, userId);
+        for (int i = 0; i < 50 && candidates.size() < count; i++) {
+            Thread.sleep(100);
+            candidates = itemRequestController.getCandidates(requestId, userId);
+        }
+        assertEquals(count, candidates.size());
+        return candidates;
+    }
+
     @Test
     void getAllByWrongUser() {
         assertThrows(DataNotFoundException.class, () -> itemRequestController.getAll(0, 10, 1L));
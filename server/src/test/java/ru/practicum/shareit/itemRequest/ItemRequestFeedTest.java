@@ -0,0 +1,89 @@
+package ru.practicum.shareit.itemRequest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.itemRequest.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+import ru.practicum.shareit.itemRequest.service.ItemRequestFeed;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemRequestFeedTest {
+    ItemRequestRepository itemRequestRepository;
+    ItemRepository itemRepository;
+    ItemRequestFeed feed;
+    User requester;
+    List<ItemRequest> stored;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        itemRepository = Mockito.mock(ItemRepository.class);
+        feed = new ItemRequestFeed(itemRequestRepository, itemRepository, 10);
+        requester = new User(1L, "name", "email@email.com");
+        stored = new ArrayList<>();
+        stored.add(new ItemRequest(1L, "дрель", requester, LocalDateTime.now().minusHours(1)));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void getPageTestLoadsOnce() {
+        when(itemRequestRepository.findAllActive(any(Pageable.class)))
+                .thenAnswer(invocation -> List.copyOf(stored));
+
+        assertEquals(List.of(1L), ids(feed.getPage(2L, 0, 10)));
+        assertEquals(List.of(1L), ids(feed.getPage(2L, 0, 10)));
+        verify(itemRequestRepository, times(1)).findAllActive(any(Pageable.class));
+    }
+
+    @Test
+    void getPageTestDoesNotPublishLoadRacingWithChange() {
+        ItemRequest created = new ItemRequest(2L, "пила", requester, LocalDateTime.now());
+        when(itemRequestRepository.findAllActive(any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    List<ItemRequest> snapshot = List.copyOf(stored);
+                    if (!stored.contains(created)) {
+                        stored.add(0, created);
+                        feed.onCreated(created, requester.getId());
+                    }
+                    return snapshot;
+                });
+
+        assertTrue(feed.getPage(2L, 0, 10).isEmpty());
+        assertEquals(List.of(2L, 1L), ids(feed.getPage(2L, 0, 10)));
+    }
+
+    private static List<Long> ids(Optional<List<ItemRequestResponseDto>> page) {
+        return page.orElseThrow().stream().map(ItemRequestResponseDto::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void onRequesterDeletedTestRemovesRequesterEntries() {
+        User other = new User(3L, "other", "other@email.com");
+        stored.add(0, new ItemRequest(2L, "пила", other, LocalDateTime.now()));
+        when(itemRequestRepository.findAllActive(any(Pageable.class)))
+                .thenAnswer(invocation -> List.copyOf(stored));
+        assertEquals(List.of(2L, 1L), ids(feed.getPage(2L, 0, 10)));
+
+        feed.onRequesterDeleted(requester.getId());
+
+        assertEquals(List.of(2L), ids(feed.getPage(2L, 0, 10)));
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletion;
+import ru.practicum.shareit.user.repository.UserDeletionRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
@@ -25,6 +27,9 @@ class ItemRequestRepositoryTests {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDeletionRepository userDeletionRepository;
+
     @Test
     void findAllByRequesterIdOrderByCreatedAscTest() {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
@@ -39,10 +44,44 @@ class ItemRequestRepositoryTests {
         User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         itemRequestRepository.save(ItemRequest.builder().description("description").requester(user)
                 .created(LocalDateTime.now()).build());
-        assertThat(itemRequestRepository.findAll(user.getId(), Pageable.ofSize(10))
-                .stream().count(), equalTo(0L));
+        assertThat(itemRequestRepository.findAll(user.getId(), Pageable.ofSize(10)).size(), equalTo(0));
+        User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
+        assertThat(itemRequestRepository.findAll(user2.getId(), Pageable.ofSize(10)).size(), equalTo(1));
+    }
+
+    @Test
+    void findAllAfterTest() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
         User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
-        assertThat(itemRequestRepository.findAll(user2.getId(), Pageable.ofSize(10))
-                .stream().count(), equalTo(1L));
+        LocalDateTime created = LocalDateTime.of(2023, 5, 1, 12, 0);
+        ItemRequest older = itemRequestRepository.save(ItemRequest.builder().description("older").requester(user)
+                .created(created.minusDays(1)).build());
+        ItemRequest first = itemRequestRepository.save(ItemRequest.builder().description("first").requester(user)
+                .created(created).build());
+        ItemRequest second = itemRequestRepository.save(ItemRequest.builder().description("second").requester(user)
+                .created(created).build());
+        itemRequestRepository.save(ItemRequest.builder().description("own").requester(user2)
+                .created(created.minusHours(1)).build());
+
+        List<ItemRequest> page = itemRequestRepository.findAllAfter(user2.getId(), second.getCreated(),
+                second.getId(), Pageable.ofSize(10));
+        assertThat(page.size(), equalTo(2));
+        assertThat(page.get(0).getId(), equalTo(first.getId()));
+        assertThat(page.get(1).getId(), equalTo(older.getId()));
+    }
+
+    @Test
+    void findAllTestSkipsRequestersPendingDeletion() {
+        User user = userRepository.save(User.builder().name("name").email("email@email.com").build());
+        User user2 = userRepository.save(User.builder().name("name2").email("email2@email.com").build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("description")
+                .requester(user).created(LocalDateTime.now()).build());
+        userDeletionRepository.save(UserDeletion.builder().userId(user.getId()).requested(LocalDateTime.now())
+                .build());
+
+        assertThat(itemRequestRepository.findAll(user2.getId(), Pageable.ofSize(10)).size(), equalTo(0));
+        assertThat(itemRequestRepository.findAllActive(Pageable.ofSize(10)).size(), equalTo(0));
+        assertThat(itemRequestRepository.findAllAfter(user2.getId(), request.getCreated().plusDays(1),
+                request.getId(), Pageable.ofSize(10)).size(), equalTo(0));
     }
 }
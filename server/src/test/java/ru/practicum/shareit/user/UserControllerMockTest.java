@@ -19,11 +19,14 @@ import ru.practicum.shareit.user.service.UserService;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 @WebMvcTest(UserController.class)
@@ -59,6 +62,50 @@ class UserControllerMockTest {
         Mockito.verify(userService, Mockito.times(1)).getAll();
     }
 
+    @Test
+    void getAllPage() throws Exception {
+        Mockito.when(userService.getAll(0, 1))
+                .thenReturn(List.of(UserMapper.toUserDto(user)));
+
+        mockMvc.perform(get("/users?from=0&size=1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)));
+
+        Mockito.verify(userService, Mockito.never()).getAll();
+    }
+
+    @Test
+    void getAllAfterReturnsNextCursorForFullPage() throws Exception {
+        user.setId(5);
+        Mockito.when(userService.getAllAfter(4L, 1))
+                .thenReturn(List.of(UserMapper.toUserDto(user)));
+
+        mockMvc.perform(get("/users?after=4&size=1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "5"))
+                .andExpect(jsonPath("$[0].id", Matchers.is(5)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllAsStream() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<UserDto> action = invocation.getArgument(0);
+            action.accept(UserMapper.toUserDto(user));
+            action.accept(UserMapper.toUserDto(new User(1, "other", "other@mail.ru")));
+            return null;
+        }).when(userService).streamAll(any(Consumer.class));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/users?stream=true"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[1].email", Matchers.is("other@mail.ru")));
+    }
+
     @Test
     void getById() throws Exception {
         UserDto userDto = UserMapper.toUserDto(user);
@@ -6,6 +6,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.exceptions.DataNotFoundException;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDeletionProgress;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
@@ -17,6 +20,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class UserControllerTests {
     @Autowired
     private UserController userController;
+    @Autowired
+    private ItemController itemController;
+    @Autowired
+    private UserDeletionEndpoint userDeletionEndpoint;
 
     private UserDto user;
 
@@ -55,6 +62,28 @@ class UserControllerTests {
         assertEquals(0, userController.getAll().size());
     }
 
+    @Test
+    void deleteAsyncTest() throws InterruptedException {
+        UserDto userDto = userController.create(UserMapper.toUser(user));
+        itemController.create(userDto.getId(), ItemDto.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .build());
+
+        userController.deleteAsync(userDto.getId());
+
+        assertThrows(DataNotFoundException.class, () -> userController.getById(userDto.getId()));
+        assertEquals(0, userController.getAll().size());
+        UserDeletionProgress progress = userDeletionEndpoint.deletion(userDto.getId());
+        for (int i = 0; i < 100 && progress.getFinished() == null; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(UserDeletionProgress.Stage.DONE, progress.getStage());
+        assertEquals(1L, progress.getDeleted().get("items"));
+        assertEquals(1L, progress.getDeleted().get("user"));
+    }
+
     @Test
     void getByWrongIdTest() {
         assertThrows(DataNotFoundException.class, () -> userController.getById(1L));
@@ -110,4 +110,23 @@ class UserServiceImplTest {
                 .map(UserDto::getId)
                 .contains(2L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(6)
+    void getByIdAfterDeleteTest() {
+        assertThrows(DataNotFoundException.class, () -> userService.getById(1L));
+    }
+
+    @Test
+    @Order(7)
+    void getByIdAfterCreateOfMissingIdTest() {
+        assertThrows(DataNotFoundException.class, () -> userService.getById(3L));
+        UserDto created = userService.create(UserMapper.toUser(UserDto.builder()
+                .name("user3")
+                .email("user3@yandex.ru")
+                .build()));
+
+        assertThat(created).hasFieldOrPropertyWithValue("id", 3L);
+        assertThat(userService.getById(3L)).hasFieldOrPropertyWithValue("name", "user3");
+    }
+}